@@ -0,0 +1,117 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger;
+import com.openclassrooms.starterjwt.security.jwt.AuthFilterMetrics;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path every authenticated request goes through: token generation and verification in {@link JwtUtils}
+ * and a full {@link AuthTokenFilter} pass on a protected route. The benchmark profile adds -prof gc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthenticationBenchmark {
+    private JwtUtils jwtUtils;
+
+    private AuthTokenFilter authTokenFilter;
+
+    private Authentication authentication;
+
+    private String token;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthFailureLogger authFailureLogger = new AuthFailureLogger(meterRegistry, 20);
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "openclassrooms");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", 86400000L);
+        ReflectionTestUtils.setField(jwtUtils, "authFailureLogger", authFailureLogger);
+        jwtUtils.init();
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(1L, "yoga@studio.com", "Admin", "Admin", true, null);
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, Collections.emptyList());
+        token = jwtUtils.generateJwtToken(authentication);
+
+        authTokenFilter = new AuthTokenFilter(WebSecurityConfig.unfilteredRoutes());
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "verifiedTokenCache", new VerifiedTokenCache(meterRegistry, 10000));
+        ReflectionTestUtils.setField(authTokenFilter, "tokenRevocationList",
+                new TokenRevocationList(Mockito.mock(RevokedTokenRepository.class), 10000));
+        ReflectionTestUtils.setField(authTokenFilter, "authFailureLogger", authFailureLogger);
+        ReflectionTestUtils.setField(authTokenFilter, "authFilterMetrics", new AuthFilterMetrics(meterRegistry));
+
+        request = new MockHttpServletRequest("GET", "/api/session");
+        request.setServletPath("/api/session");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    @Benchmark
+    public Object authTokenFilter() throws ServletException, IOException {
+        try {
+            authTokenFilter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            // Reset what OncePerRequestFilter and the filter leave behind so each call is a full pass
+            request.clearAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the 401 body written with a new ObjectMapper per request (the former AuthEntryPointJwt)
+ * with the pre-encoded {@link ErrorResponseWriter}. Run with -prof gc to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ErrorResponseBenchmark {
+    private static final String MESSAGE = "Full authentication is required to access this resource";
+
+    private MockHttpServletRequest request;
+
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Setup
+    public void setup() {
+        request = new MockHttpServletRequest("GET", "/api/session");
+        request.setServletPath("/api/session");
+        errorResponseWriter = new ErrorResponseWriter();
+    }
+
+    @Benchmark
+    public byte[] objectMapperPerRequest() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+        body.put("error", "Unauthorized");
+        body.put("message", MESSAGE);
+        body.put("path", request.getServletPath());
+
+        new ObjectMapper().writeValue(response.getOutputStream(), body);
+        return response.getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] errorResponseWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        errorResponseWriter.write(response, HttpStatus.UNAUTHORIZED, MESSAGE, request.getServletPath());
+        return response.getContentAsByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain(String)} never returns {@code false}
+ * for a value that was added, and returns {@code true} for an absent value with roughly the
+ * false-positive rate given at construction. Values cannot be removed: rebuild a new filter instead.
+ */
+public class BloomFilter {
+  private final AtomicLongArray words;
+
+  private final long bitCount;
+
+  private final int hashCount;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int expected = Math.max(expectedInsertions, 1);
+    long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int wordCount = (int) Math.max(1, (bits + 63) / 64);
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount * 64;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+  }
+
+  public void add(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = index(h1 + i * h2);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current;
+      do {
+        current = words.get(word);
+        if ((current & mask) != 0) {
+          break;
+        }
+      } while (!words.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  public boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = index(h1 + i * h2);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long index(int combinedHash) {
+    return (combinedHash & 0x7fffffffL) % bitCount;
+  }
+
+  // 64-bit FNV-1a followed by a MurmurHash3 finalizer so that both halves are well mixed
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb3f98e4f5e87L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,142 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrent in-process cache with a maximum size where every entry carries its own expiration time.
+ * Hits, misses and evictions are counted and can be published to a {@link MeterRegistry}.
+ */
+public class BoundedExpiringCache<K, V> {
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  private final int maximumSize;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedExpiringCache(int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive");
+    }
+    this.maximumSize = maximumSize;
+  }
+
+  public V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    if (entry.expiresAt <= System.currentTimeMillis()) {
+      if (entries.remove(key, entry)) {
+        evictions.increment();
+      }
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return entry.value;
+  }
+
+  public void put(K key, V value, long expiresAtMillis) {
+    if (expiresAtMillis <= System.currentTimeMillis()) {
+      return;
+    }
+
+    if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+      evict();
+    }
+    entries.put(key, new Entry<>(value, expiresAtMillis));
+  }
+
+  public void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Publishes the cache statistics under the same meter names as Micrometer's cache binders.
+   */
+  public void bindTo(MeterRegistry registry, String cacheName) {
+    Gauge.builder("cache.size", entries, Map::size)
+        .tag("cache", cacheName)
+        .register(registry);
+    FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+        .tag("cache", cacheName)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+        .tag("cache", cacheName)
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+        .tag("cache", cacheName)
+        .register(registry);
+  }
+
+  /**
+   * Called when the cache is full: drops expired entries first and, if that freed nothing,
+   * an arbitrary batch of live entries so that the next inserts do not have to sweep again.
+   */
+  private void evict() {
+    long now = System.currentTimeMillis();
+    int removed = 0;
+    for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext();) {
+      if (it.next().expiresAt <= now) {
+        it.remove();
+        removed++;
+      }
+    }
+
+    int batch = maximumSize / 16 + 1;
+    for (Iterator<Entry<V>> it = entries.values().iterator(); removed < batch && entries.size() >= maximumSize && it.hasNext();) {
+      it.next();
+      it.remove();
+      removed++;
+    }
+
+    evictions.add(removed);
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
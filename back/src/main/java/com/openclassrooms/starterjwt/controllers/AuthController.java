@@ -1,88 +1,185 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.request.TokenRefreshRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.LoginThrottle;
+import com.openclassrooms.starterjwt.security.services.PasswordRehashService;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+
+import io.jsonwebtoken.Claims;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    private static final String TOO_MANY_ATTEMPTS = "Too many login attempts, please retry later";
+
+    private static final String INVALID_REFRESH_TOKEN = "Refresh token is invalid or revoked";
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
+    private final PasswordRehashService passwordRehashService;
+    private final LoginThrottle loginThrottle;
+    private final RegisteredEmailFilter registeredEmails;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            UserDetailsServiceImpl userDetailsService,
+            TokenRevocationList tokenRevocationList,
+            PasswordRehashService passwordRehashService,
+            LoginThrottle loginThrottle,
+            RegisteredEmailFilter registeredEmails) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.passwordRehashService = passwordRehashService;
+        this.loginThrottle = loginThrottle;
+        this.registeredEmails = registeredEmails;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        // Rejected before any password hashing or user lookup
+        long retryAfterSeconds = loginThrottle.acquire(loginRequest.getEmail(), request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            throw new TooManyRequestsException(TOO_MANY_ATTEMPTS, retryAfterSeconds);
+        }
 
+        // A full hashing queue surfaces as HashingCapacityExceededException, rendered as 503 by ApiExceptionHandler
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        passwordRehashService.rehashIfNeeded(userDetails, loginRequest.getPassword());
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
+        return ResponseEntity.ok(new JwtResponse(jwt,
+                jwtUtils.generateRefreshToken(userDetails),
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                Boolean.TRUE.equals(userDetails.getAdmin())));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshRequest refreshRequest) {
+        Claims claims = jwtUtils.parseJwtToken(refreshRequest.getRefreshToken());
+        if (claims == null || !jwtUtils.isRefreshToken(claims) || tokenRevocationList.isRevoked(claims.getId())) {
+            throw new UnauthorizedException(INVALID_REFRESH_TOKEN);
         }
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
+        // Reload the account so that deleted users cannot refresh and role changes are picked up
+        UserDetailsImpl userDetails;
+        try {
+            userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            throw new UnauthorizedException(INVALID_REFRESH_TOKEN);
+        }
+
+        // Refresh tokens are single use: only the call that revokes the presented one gets its replacement
+        if (!tokenRevocationList.revoke(claims.getId(), claims.getExpiration())) {
+            throw new UnauthorizedException(INVALID_REFRESH_TOKEN);
+        }
+
+        return ResponseEntity.ok(new JwtResponse(jwtUtils.generateAccessToken(userDetails),
+                jwtUtils.generateRefreshToken(userDetails),
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                Boolean.TRUE.equals(userDetails.getAdmin())));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody TokenRefreshRequest refreshRequest,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Claims refreshClaims = jwtUtils.parseJwtToken(refreshRequest.getRefreshToken());
+        if (refreshClaims != null && jwtUtils.isRefreshToken(refreshClaims)) {
+            tokenRevocationList.revoke(refreshClaims.getId(), refreshClaims.getExpiration());
+        }
+
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims accessClaims = jwtUtils.parseJwtToken(authorization.substring(7));
+            if (accessClaims != null) {
+                tokenRevocationList.revoke(accessClaims.getId(), accessClaims.getExpiration());
+            }
+        }
+
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully!"));
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
+        // Only an email the filter may have seen is looked up, to reject a duplicate before hashing its password
+        if (registeredEmails.mightBeRegistered(signUpRequest.getEmail())
+                && Boolean.TRUE.equals(userRepository.existsByEmail(signUpRequest.getEmail()))) {
+            return emailAlreadyTaken();
         }
 
+        String encodedPassword = passwordEncoder.encode(signUpRequest.getPassword());
+
         // Create new user's account
         User user = new User(signUpRequest.getEmail(),
                 signUpRequest.getLastName(),
                 signUpRequest.getFirstName(),
-                passwordEncoder.encode(signUpRequest.getPassword()),
+                encodedPassword,
                 false);
 
-        userRepository.save(user);
+        // The unique constraint on USERS.email rejects duplicates atomically, even for concurrent sign-ups
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            return emailAlreadyTaken();
+        }
+        registeredEmails.add(user.getEmail());
+        userDetailsService.evict(user.getEmail());
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private ResponseEntity<MessageResponse> emailAlreadyTaken() {
+        return ResponseEntity
+                .badRequest()
+                .body(new MessageResponse("Error: Email is already taken!"));
+    }
 }
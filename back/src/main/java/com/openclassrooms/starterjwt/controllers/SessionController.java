@@ -4,15 +4,25 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.request.EnrollmentRequest;
+import com.openclassrooms.starterjwt.payload.response.WaitlistPositionResponse;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
+import com.openclassrooms.starterjwt.services.SessionCursor;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistCursor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
@@ -43,10 +53,24 @@ public class SessionController {
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
-
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "size", defaultValue = "50") int size) {
+        Slice<SessionSummary> page = this.sessionService.findPage(SessionCursor.decode(cursor), size);
+        List<SessionSummary> sessions = page.getContent();
+        Map<Long, List<Long>> participantIds = this.sessionService.findParticipantIds(
+                sessions.stream().map(SessionSummary::getId).collect(Collectors.toList()));
+
+        List<SessionDto> sessionDtos = sessions.stream()
+                .map(session -> this.sessionMapper.toDto(session,
+                        participantIds.getOrDefault(session.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            SessionSummary last = sessions.get(sessions.size() - 1);
+            response.header(SessionCursor.NEXT_CURSOR_HEADER, SessionCursor.encode(last.getDate(), last.getId()));
+        }
+        return response.body(sessionDtos);
     }
 
     @PostMapping()
@@ -107,4 +131,66 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @PostMapping("{id}/participants")
+    public ResponseEntity<?> enroll(@PathVariable("id") String id, @Valid @RequestBody EnrollmentRequest request) {
+        try {
+            Map<Long, EnrollmentStatus> results = this.sessionService.enroll(Long.parseLong(id), request.getUserIds());
+
+            return ResponseEntity.ok().body(results);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist")
+    public ResponseEntity<?> findWaitlist(@PathVariable("id") String id,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "50") int size) {
+        try {
+            Slice<WaitlistEntry> page = this.sessionService.findWaitlist(Long.parseLong(id), WaitlistCursor.decode(cursor), size);
+            List<WaitlistEntry> entries = page.getContent();
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.hasNext()) {
+                response.header(SessionCursor.NEXT_CURSOR_HEADER, WaitlistCursor.encode(entries.get(entries.size() - 1).getId()));
+            }
+            return response.body(entries.stream().map(WaitlistEntry::getUserId).collect(Collectors.toList()));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> getWaitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            long position = this.sessionService.getWaitlistPosition(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().body(new WaitlistPositionResponse(position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            long position = this.sessionService.joinWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().body(new WaitlistPositionResponse(position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.sessionService.leaveWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
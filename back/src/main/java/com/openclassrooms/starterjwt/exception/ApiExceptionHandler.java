@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Renders the application exceptions with the same {@link ErrorResponseWriter} as the authentication entry point.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public ApiExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public void handleNotFound(NotFoundException e, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(HttpStatus.NOT_FOUND, e, request, response);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public void handleBadRequest(BadRequestException e, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(HttpStatus.BAD_REQUEST, e, request, response);
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public void handleHashingCapacityExceeded(HashingCapacityExceededException e, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        write(HttpStatus.SERVICE_UNAVAILABLE, e, request, response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public void handleTooManyRequests(TooManyRequestsException e, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        write(HttpStatus.TOO_MANY_REQUESTS, e, request, response);
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public void handleUnauthorized(UnauthorizedException e, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(HttpStatus.UNAUTHORIZED, e, request, response);
+    }
+
+    private void write(HttpStatus status, RuntimeException e, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String message = e.getMessage() != null ? e.getMessage() : status.getReasonPhrase();
+        errorResponseWriter.write(response, status, message, request.getServletPath());
+    }
+}
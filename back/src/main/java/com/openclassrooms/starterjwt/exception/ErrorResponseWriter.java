@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the JSON error bodies of the API: {"status":...,"error":...,"message":...,"path":...}.
+ * The constant part of each body is encoded once per status when the writer is created, so a request only encodes
+ * its message and path instead of building a map and serializing it with a new ObjectMapper.
+ */
+@Component
+public class ErrorResponseWriter {
+    private static final byte[] PATH_FIELD = ",\"path\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte QUOTE = '"';
+
+    private static final byte END = '}';
+
+    // Indexed by status code. Filled in the constructor and only read afterwards: the final field publishes it safely
+    private final byte[][] prefixes = new byte[600][];
+
+    public ErrorResponseWriter() {
+        for (HttpStatus status : HttpStatus.values()) {
+            // Deprecated aliases such as MOVED_TEMPORARILY share their code with the status declared before them
+            if (prefixes[status.value()] != null) {
+                continue;
+            }
+            prefixes[status.value()] = ("{\"status\":" + status.value()
+                    + ",\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(status.getReasonPhrase()))
+                    + "\",\"message\":").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        byte[] prefix = prefixes[status.value()];
+        byte[] encodedMessage = message != null ? JsonStringEncoder.getInstance().quoteAsUTF8(message) : null;
+        byte[] encodedPath = path != null ? JsonStringEncoder.getInstance().quoteAsUTF8(path) : null;
+
+        int length = prefix.length + quotedLength(encodedMessage) + PATH_FIELD.length + quotedLength(encodedPath) + 1;
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        writeQuoted(out, encodedMessage);
+        out.write(PATH_FIELD);
+        writeQuoted(out, encodedPath);
+        out.write(END);
+    }
+
+    private static int quotedLength(byte[] encoded) {
+        return encoded != null ? encoded.length + 2 : NULL.length;
+    }
+
+    private static void writeQuoted(ServletOutputStream out, byte[] encoded) throws IOException {
+        if (encoded == null) {
+            out.write(NULL);
+            return;
+        }
+        out.write(QUOTE);
+        out.write(encoded);
+        out.write(QUOTE);
+    }
+}
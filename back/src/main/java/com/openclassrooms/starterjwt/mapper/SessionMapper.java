@@ -1,8 +1,11 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
@@ -13,7 +16,10 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -27,8 +33,8 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
-            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.findTeacher(sessionDto.getTeacher_id()) : null)"),
+            @Mapping(target = "users", expression = "java(this.findUsers(sessionDto.getUsers()))"),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
@@ -36,7 +42,45 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(source = "session.teacher.id", target = "teacher_id"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptySet).stream().map(u -> u.getId()).sorted().collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    /**
+     * @throws BadRequestException when no teacher has this ID
+     */
+    protected Teacher findTeacher(Long teacherId) {
+        Teacher teacher = this.teacherService.findById(teacherId);
+        if (teacher == null) {
+            throw new BadRequestException("Unknown teacher ID: " + teacherId);
+        }
+        return teacher;
+    }
+
+    /**
+     * Resolves all the participants in batched IN-list queries rather than one SELECT per ID.
+     *
+     * @throws BadRequestException listing the IDs that match no user
+     */
+    protected Set<User> findUsers(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return this.userService.findAllById(userIds);
+    }
+
+    /**
+     * Builds the same DTO as {@link #toDto(Session)} from a list row and its participant IDs.
+     */
+    public SessionDto toDto(SessionSummary summary, List<Long> userIds) {
+        return new SessionDto(summary.getId(),
+                summary.getName(),
+                summary.getDate(),
+                summary.getTeacherId(),
+                summary.getDescription(),
+                summary.getCapacity(),
+                userIds,
+                summary.getCreatedAt(),
+                summary.getUpdatedAt());
+    }
 }
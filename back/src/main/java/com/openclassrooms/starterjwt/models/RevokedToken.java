@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+@Entity
+@Table(name = "REVOKED_TOKENS")
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"jti"})
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Date expiresAt;
+}
@@ -8,12 +8,13 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.Date;
-import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "SESSIONS")
@@ -45,12 +46,24 @@ public class Session {
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
+    /** Maximum number of participants, null for a session without limit. */
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Booked seats, only ever changed by the conditional statements of the session repository so that concurrent
+     * bookings cannot overbook; saving the entity never writes it.
+     */
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT DEFAULT 0")
+    private int seatsTaken;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
             inverseJoinColumns = @JoinColumn( name = "user_id" ) )
-    private List<User> users;
+    private Set<User> users;
 
     @CreatedDate
     @Column(name = "created_at", updatable = false)
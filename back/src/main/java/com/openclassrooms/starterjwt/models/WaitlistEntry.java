@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * A user waiting for a seat in a full session. The auto-increment ID gives the FIFO order within a session.
+ */
+@Entity
+@Table(name = "WAITLIST",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "user_id"}),
+        indexes = @Index(name = "idx_waitlist_session_id", columnList = "session_id, id"))
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class EnrollmentRequest {
+  /** Bounded so that every statement of the enrollment takes a single IN-list. */
+  @NotEmpty
+  @Size(max = 1000)
+  private List<@NotNull Long> userIds;
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+public class WaitlistPositionResponse {
+  private long position;
+
+  public WaitlistPositionResponse(long position) {
+    this.position = position;
+  }
+
+  /**
+   * @return 1 for the user promoted at the next free seat
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  public void setPosition(long position) {
+    this.position = position;
+  }
+}
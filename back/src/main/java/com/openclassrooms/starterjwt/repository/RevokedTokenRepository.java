@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByExpiresAtAfter(Date date);
+
+    /**
+     * Inserts the row unless the token is already revoked. The primary key on jti makes this atomic,
+     * even for concurrent calls on several instances.
+     *
+     * @return 1 when the row was inserted, 0 when the token was already revoked
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO REVOKED_TOKENS (jti, expires_at) VALUES (:jti, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") Date expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :date")
+    int deleteExpired(@Param("date") Date date);
+}
@@ -1,9 +1,134 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    String SUMMARY_SELECT = "SELECT s.id AS id, s.name AS name, s.date AS date, s.description AS description, "
+            + "s.capacity AS capacity, s.teacher.id AS teacherId, s.createdAt AS createdAt, s.updatedAt AS updatedAt FROM Session s ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY s.date, s.id")
+    List<SessionSummary> findSummaries(Pageable pageable);
+
+    /**
+     * Sessions strictly after the (date, id) position, in (date, id) order: served by the SESSIONS (date, id) index
+     * whatever the position, unlike an offset.
+     */
+    @Query(SUMMARY_SELECT + "WHERE s.date > :date OR (s.date = :date AND s.id > :id) ORDER BY s.date, s.id")
+    List<SessionSummary> findSummariesAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * @return (session_id, user_id) pairs read from PARTICIPATE alone, without touching USERS
+     */
+    @Query(value = "SELECT session_id, user_id FROM PARTICIPATE WHERE session_id IN (:sessionIds) "
+            + "ORDER BY session_id, user_id", nativeQuery = true)
+    List<Object[]> findParticipantIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    /**
+     * Takes one seat of the session if it has any left. The row lock taken by the UPDATE is held until the
+     * transaction ends, so concurrent bookings of the same session are applied one after the other, each against
+     * the seats left by the previous one.
+     *
+     * @return 1 when a seat was taken, 0 when the session is full or does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken + 1 "
+            + "WHERE id = :sessionId AND (capacity IS NULL OR seats_taken < capacity)", nativeQuery = true)
+    int reserveSeat(@Param("sessionId") Long sessionId);
+
+    /**
+     * Gives back the seat of a participant. Like {@link #reserveSeat(Long)} it locks the session row before
+     * PARTICIPATE is touched, so that booking and leaving always lock in the same order.
+     *
+     * @return 1 when the user participates in the session, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken - 1 WHERE id = :sessionId AND EXISTS "
+            + "(SELECT 1 FROM PARTICIPATE p WHERE p.session_id = SESSIONS.id AND p.user_id = :userId)",
+            nativeQuery = true)
+    int releaseSeat(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Locks the session row until the end of the caller's transaction, like {@link #reserveSeat(Long)}.
+     *
+     * @return the seats left, {@code requested} for a session without limit, or null when the session does not exist
+     */
+    @Query(value = "SELECT GREATEST(COALESCE(capacity - seats_taken, :requested), 0) FROM SESSIONS "
+            + "WHERE id = :sessionId FOR UPDATE", nativeQuery = true)
+    Number lockFreeSeats(@Param("sessionId") Long sessionId, @Param("requested") int requested);
+
+    /**
+     * Only called with the session row locked and the seats counted by {@link #lockFreeSeats(Long, int)}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken + :count WHERE id = :sessionId", nativeQuery = true)
+    int takeSeats(@Param("sessionId") Long sessionId, @Param("count") int count);
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :sessionId", nativeQuery = true)
+    long countParticipants(@Param("sessionId") Long sessionId);
+
+    /**
+     * Recounts the seats taken after the participants were replaced through the entity.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = "
+            + "(SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = SESSIONS.id) WHERE id = :sessionId",
+            nativeQuery = true)
+    int syncSeatsTaken(@Param("sessionId") Long sessionId);
+
+    /**
+     * Inserts the PARTICIPATE row only if the session and the user exist and the user does not participate yet.
+     *
+     * @return 1 when the row was inserted, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) "
+            + "SELECT s.id, u.id FROM SESSIONS s, USERS u WHERE s.id = :sessionId AND u.id = :userId "
+            + "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = :userId)",
+            nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * @return (user_id, participating user_id or null) for each of the IDs that belongs to a user
+     */
+    @Query(value = "SELECT u.id, p.user_id FROM USERS u LEFT JOIN PARTICIPATE p "
+            + "ON p.session_id = :sessionId AND p.user_id = u.id WHERE u.id IN (:userIds)", nativeQuery = true)
+    List<Object[]> findParticipation(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Inserts the PARTICIPATE rows of all the given users in one statement, skipping those already present.
+     *
+     * @return the number of rows inserted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) "
+            + "SELECT :sessionId, u.id FROM USERS u WHERE u.id IN (:userIds) "
+            + "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = u.id)",
+            nativeQuery = true)
+    int addParticipants(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * @return the number of PARTICIPATE rows deleted, 0 when the user did not participate
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
 }
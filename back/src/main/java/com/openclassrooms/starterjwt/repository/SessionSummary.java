@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Columns of a SESSIONS row needed by the session list, read without loading the teacher or the participants.
+ */
+public interface SessionSummary {
+    Long getId();
+
+    String getName();
+
+    Date getDate();
+
+    String getDescription();
+
+    Integer getCapacity();
+
+    Long getTeacherId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every lookup is served by the WAITLIST (session_id, id) index or the (session_id, user_id) unique key.
+ */
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    /**
+     * @return the longest waiting entry of the session: the first key of its (session_id, id) index range
+     */
+    Optional<WaitlistEntry> findFirstBySessionIdOrderByIdAsc(Long sessionId);
+
+    Optional<WaitlistEntry> findBySessionIdAndUserId(Long sessionId, Long userId);
+
+    /**
+     * @return the 1-based rank of the entry: a range scan of the (session_id, id) index up to the entry, so its cost
+     * grows with the position
+     */
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.id <= :id")
+    long countUpTo(@Param("sessionId") Long sessionId, @Param("id") Long id);
+
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.sessionId = :sessionId ORDER BY w.id")
+    List<WaitlistEntry> findEntries(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    /**
+     * Entries queued after the given one, in queue order: read from the (session_id, id) index where the previous
+     * page stopped, unlike an offset.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.id > :id ORDER BY w.id")
+    List<WaitlistEntry> findEntriesAfter(@Param("sessionId") Long sessionId, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Queues the user only if the session and the user exist, the session is full, and the user neither
+     * participates nor waits yet.
+     *
+     * @return 1 when the user was queued, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO WAITLIST (session_id, user_id, created_at) "
+            + "SELECT s.id, u.id, CURRENT_TIMESTAMP FROM SESSIONS s, USERS u WHERE s.id = :sessionId AND u.id = :userId "
+            + "AND s.capacity IS NOT NULL AND s.seats_taken >= s.capacity "
+            + "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = :userId) "
+            + "AND NOT EXISTS (SELECT 1 FROM WAITLIST w WHERE w.session_id = :sessionId AND w.user_id = :userId)",
+            nativeQuery = true)
+    int join(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * @return the number of WAITLIST rows deleted, 0 when the user was not waiting
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM WAITLIST WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int leave(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM WAITLIST WHERE session_id = :sessionId AND user_id IN (:userIds)", nativeQuery = true)
+    int leaveAll(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM WAITLIST WHERE session_id = :sessionId", nativeQuery = true)
+    int deleteBySession(@Param("sessionId") Long sessionId);
+}
@@ -1,8 +1,12 @@
 package com.openclassrooms.starterjwt.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -13,10 +17,24 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
 
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.services.BCryptStrengthCalibrator;
+import com.openclassrooms.starterjwt.security.services.BoundedPasswordEncoder;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableWebSecurity
@@ -25,15 +43,71 @@ import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
     // jsr250Enabled = true,
     prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
+  /** Routes reachable without a token: the JWT filter is skipped on them. */
+  public static final String[] PUBLIC_ROUTES = { "/api/auth/**" };
+
   @Autowired
   UserDetailsServiceImpl userDetailsService;
 
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private BCryptStrengthCalibrator strengthCalibrator;
+
+  @Value("${oc.app.hashingThreads}")
+  private int hashingThreads;
+
+  @Value("${oc.app.hashingQueueCapacity}")
+  private int hashingQueueCapacity;
+
+  @Value("${oc.app.hashingRetryAfterSeconds}")
+  private long hashingRetryAfterSeconds;
+
+  @Value("${oc.app.corsAllowedOrigins}")
+  private String[] corsAllowedOrigins;
+
+  @Value("${oc.app.corsMaxAgeSeconds}")
+  private long corsMaxAgeSeconds;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
-    return new AuthTokenFilter();
+    return new AuthTokenFilter(unfilteredRoutes());
+  }
+
+  /**
+   * Answers CORS preflights before the security chain, for every controller.
+   */
+  @Bean
+  public FilterRegistrationBean<CorsFilter> corsFilter() {
+    CorsConfiguration configuration = new CorsConfiguration();
+    configuration.setAllowedOrigins(Arrays.asList(corsAllowedOrigins));
+    configuration.setAllowedMethods(Collections.singletonList(CorsConfiguration.ALL));
+    configuration.setAllowedHeaders(Collections.singletonList(CorsConfiguration.ALL));
+    configuration.setExposedHeaders(Collections.singletonList(SessionCursor.NEXT_CURSOR_HEADER));
+    configuration.setMaxAge(corsMaxAgeSeconds);
+
+    UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    source.registerCorsConfiguration("/**", configuration);
+
+    FilterRegistrationBean<CorsFilter> registration = new FilterRegistrationBean<>(new CorsFilter(source));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+
+  /**
+   * Requests the JWT filter skips, derived from {@link #PUBLIC_ROUTES} plus every preflight.
+   */
+  public static RequestMatcher unfilteredRoutes() {
+    RequestMatcher[] matchers = new RequestMatcher[PUBLIC_ROUTES.length + 1];
+    for (int i = 0; i < PUBLIC_ROUTES.length; i++) {
+      matchers[i] = new AntPathRequestMatcher(PUBLIC_ROUTES[i]);
+    }
+    matchers[PUBLIC_ROUTES.length] = new AntPathRequestMatcher("/**", HttpMethod.OPTIONS.name());
+    return new OrRequestMatcher(matchers);
   }
 
   @Override
@@ -49,15 +123,17 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+    return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strengthCalibrator.getStrength()), threads, hashingQueueCapacity,
+        hashingRetryAfterSeconds, meterRegistry);
   }
 
   @Override
   protected void configure(HttpSecurity http) throws Exception {
-    http.cors().and().csrf().disable()
+    http.csrf().disable()
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
-      .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .authorizeRequests().antMatchers(PUBLIC_ROUTES).permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
@@ -0,0 +1,103 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts authentication failures per reason and logs only a sample of them: at most
+ * {@code oc.app.authLogMaxPerInterval} lines per {@code oc.app.authLogIntervalMs}, followed by one
+ * summary line for what was suppressed. A client retrying with an expired token, or a scanner,
+ * then costs a counter increment instead of a log line per request.
+ */
+@Component
+public class AuthFailureLogger {
+  private static final Logger logger = LoggerFactory.getLogger(AuthFailureLogger.class);
+
+  public enum Reason {
+    EXPIRED("expired"),
+    BAD_SIGNATURE("bad_signature"),
+    MALFORMED("malformed"),
+    UNSUPPORTED("unsupported"),
+    EMPTY("empty"),
+    UNAUTHORIZED("unauthorized"),
+    ERROR("error");
+
+    private final String tag;
+
+    Reason(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+  }
+
+  private final int maxLogsPerInterval;
+
+  private final AtomicInteger loggedInInterval = new AtomicInteger();
+
+  private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+
+  private final Map<Reason, LongAdder> suppressed = new EnumMap<>(Reason.class);
+
+  public AuthFailureLogger(MeterRegistry meterRegistry,
+                           @Value("${oc.app.authLogMaxPerInterval}") int maxLogsPerInterval) {
+    this.maxLogsPerInterval = maxLogsPerInterval;
+    for (Reason reason : Reason.values()) {
+      counters.put(reason, Counter.builder("auth.failures")
+          .tag("reason", reason.getTag())
+          .register(meterRegistry));
+      suppressed.put(reason, new LongAdder());
+    }
+  }
+
+  public void reject(Reason reason, String message) {
+    reject(reason, message, null);
+  }
+
+  public void reject(Reason reason, String message, Throwable error) {
+    counters.get(reason).increment();
+
+    if (loggedInInterval.incrementAndGet() > maxLogsPerInterval) {
+      suppressed.get(reason).increment();
+      return;
+    }
+
+    if (error != null) {
+      logger.warn("Authentication failure ({}): {}", reason.getTag(), message, error);
+    } else {
+      logger.warn("Authentication failure ({}): {}", reason.getTag(), message);
+    }
+  }
+
+  @Scheduled(fixedRateString = "${oc.app.authLogIntervalMs}")
+  public void endInterval() {
+    long total = 0;
+    StringJoiner summary = new StringJoiner(", ");
+    for (Map.Entry<Reason, LongAdder> entry : suppressed.entrySet()) {
+      long count = entry.getValue().sumThenReset();
+      if (count > 0) {
+        total += count;
+        summary.add(entry.getKey().getTag() + "=" + count);
+      }
+    }
+    loggedInInterval.set(0);
+
+    if (total > 0) {
+      logger.warn("Suppressed {} authentication failure log lines in the last interval ({})", total, summary);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers for each stage of {@link AuthTokenFilter} ({@code auth.filter.stage}, with p50/p99 and a histogram)
+ * and counters for the outcome of each request ({@code auth.filter.outcome}). Every meter is registered up
+ * front and durations are passed as raw nanoseconds, so recording allocates nothing per request.
+ */
+@Component
+public class AuthFilterMetrics {
+  public enum Stage {
+    HEADER("header"),
+    VERIFY("verify"),
+    PRINCIPAL("principal"),
+    CONTEXT("context");
+
+    private final String tag;
+
+    Stage(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+  }
+
+  public enum Outcome {
+    AUTHENTICATED("authenticated"),
+    ANONYMOUS("anonymous"),
+    INVALID("invalid"),
+    REFRESH_TOKEN("refresh_token"),
+    REVOKED("revoked"),
+    ERROR("error");
+
+    private final String tag;
+
+    Outcome(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+  }
+
+  private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+  private final Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+
+  public AuthFilterMetrics(MeterRegistry meterRegistry) {
+    for (Stage stage : Stage.values()) {
+      timers.put(stage, Timer.builder("auth.filter.stage")
+          .tag("stage", stage.getTag())
+          .publishPercentiles(0.5, 0.99)
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+    for (Outcome outcome : Outcome.values()) {
+      counters.put(outcome, Counter.builder("auth.filter.outcome")
+          .tag("outcome", outcome.getTag())
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Records the time elapsed since {@code startNanos} for a stage.
+   *
+   * @return the current {@link System#nanoTime()}, the start of the next stage
+   */
+  public long record(Stage stage, long startNanos) {
+    long now = System.nanoTime();
+    timers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+    return now;
+  }
+
+  public void count(Outcome outcome) {
+    counters.get(outcome).increment();
+  }
+}
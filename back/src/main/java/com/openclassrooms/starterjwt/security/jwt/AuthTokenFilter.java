@@ -7,52 +7,125 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger.Reason;
+import com.openclassrooms.starterjwt.security.jwt.AuthFilterMetrics.Outcome;
+import com.openclassrooms.starterjwt.security.jwt.AuthFilterMetrics.Stage;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
 
+  @Autowired
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private AuthFailureLogger authFailureLogger;
+
+  @Autowired
+  private AuthFilterMetrics authFilterMetrics;
+
+  private final RequestMatcher unfilteredRoutes;
+
+  private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+
+  /**
+   * @param unfilteredRoutes requests that never carry authentication: public routes and preflights
+   */
+  public AuthTokenFilter(RequestMatcher unfilteredRoutes) {
+    this.unfilteredRoutes = unfilteredRoutes;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return unfilteredRoutes.matches(request);
+  }
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
-      String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        UsernamePasswordAuthenticationToken authentication =
-            new UsernamePasswordAuthenticationToken(
-                userDetails,
-                null,
-                userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-      }
+      authenticate(request);
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      authFilterMetrics.count(Outcome.ERROR);
+      authFailureLogger.reject(Reason.ERROR, "Cannot set user authentication: " + e.getMessage(), e);
     }
 
     filterChain.doFilter(request, response);
   }
 
+  private void authenticate(HttpServletRequest request) {
+    long start = System.nanoTime();
+    String jwt = parseJwt(request);
+    start = authFilterMetrics.record(Stage.HEADER, start);
+    if (jwt == null) {
+      authFilterMetrics.count(Outcome.ANONYMOUS);
+      return;
+    }
+
+    Claims claims = verifyJwt(jwt);
+    start = authFilterMetrics.record(Stage.VERIFY, start);
+    if (claims == null) {
+      authFilterMetrics.count(Outcome.INVALID);
+      return;
+    }
+    if (jwtUtils.isRefreshToken(claims)) {
+      authFilterMetrics.count(Outcome.REFRESH_TOKEN);
+      return;
+    }
+    if (tokenRevocationList.isRevoked(claims.getId())) {
+      authFilterMetrics.count(Outcome.REVOKED);
+      return;
+    }
+
+    // Not checked against USERS: the claims may be stale for the lifetime of the access token
+    UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+    if (userDetails == null) {
+      // Token issued before identity claims were embedded: fall back to the database
+      userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+    start = authFilterMetrics.record(Stage.PRINCIPAL, start);
+
+    UsernamePasswordAuthenticationToken authentication =
+        new UsernamePasswordAuthenticationToken(
+            userDetails,
+            null,
+            userDetails.getAuthorities());
+    authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    authFilterMetrics.record(Stage.CONTEXT, start);
+    authFilterMetrics.count(Outcome.AUTHENTICATED);
+  }
+
+  private Claims verifyJwt(String jwt) {
+    Claims claims = verifiedTokenCache.get(jwt);
+    if (claims == null) {
+      claims = jwtUtils.parseJwtToken(jwt);
+      if (claims != null) {
+        verifiedTokenCache.put(jwt, claims);
+      }
+    }
+    return claims;
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
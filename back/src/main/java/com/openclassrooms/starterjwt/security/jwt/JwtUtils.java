@@ -1,20 +1,34 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger.Reason;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  static final String CLAIM_ID = "id";
+  static final String CLAIM_FIRST_NAME = "firstName";
+  static final String CLAIM_LAST_NAME = "lastName";
+  static final String CLAIM_ADMIN = "admin";
+  static final String CLAIM_TYPE = "typ";
+  static final String TYPE_REFRESH = "refresh";
+
+  @Autowired
+  private AuthFailureLogger authFailureLogger;
 
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
@@ -22,38 +36,122 @@ public class JwtUtils {
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${oc.app.jwtRefreshExpirationMs}")
+  private long jwtRefreshExpirationMs;
+
+  private Key signingKey;
+
+  // The parser is only configured here; parsing does not mutate it, so it is shared by all request threads.
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  public void init() {
+    // Same key derivation as signWith(SignatureAlgorithm, String): the secret is read as Base64
+    signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+    return generateAccessToken(userPrincipal);
+  }
+
+  /**
+   * Issues a short-lived access token carrying the identity claims of the principal and a unique id (jti)
+   * that can be revoked through {@link TokenRevocationList}.
+   */
+  public String generateAccessToken(UserDetailsImpl userPrincipal) {
+    Date now = new Date();
+
+    return Jwts.builder()
+        .setId(UUID.randomUUID().toString())
+        .setSubject((userPrincipal.getUsername()))
+        .claim(CLAIM_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, Boolean.TRUE.equals(userPrincipal.getAdmin()))
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+        .signWith(SignatureAlgorithm.HS512, signingKey)
+        .compact();
+  }
+
+  /**
+   * Issues a long-lived refresh token. It only identifies the user and is rejected by {@link AuthTokenFilter}.
+   */
+  public String generateRefreshToken(UserDetailsImpl userPrincipal) {
+    Date now = new Date();
+
     return Jwts.builder()
+        .setId(UUID.randomUUID().toString())
         .setSubject((userPrincipal.getUsername()))
-        .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .claim(CLAIM_TYPE, TYPE_REFRESH)
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtRefreshExpirationMs))
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
+  public boolean isRefreshToken(Claims claims) {
+    return TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
+  }
+
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
+  }
+
+  /**
+   * Rebuilds the principal from the claims embedded by {@link #generateJwtToken(Authentication)},
+   * so that an authenticated request does not need to reload the user from the database.
+   * The principal is therefore a snapshot taken at login or refresh: an account deleted or
+   * demoted since keeps its id and admin flag until the access token expires, at most
+   * {@code oc.app.jwtExpirationMs} later. A refresh reloads the account, so it cannot extend that window.
+   *
+   * @param claims claims already verified by {@link #parseJwtToken(String)}
+   * @return the principal, or {@code null} when the token was issued without identity claims
+   */
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Number id = claims.get(CLAIM_ID, Number.class);
+    if (id == null) {
+      return null;
+    }
+
+    return UserDetailsImpl
+            .builder()
+            .id(id.longValue())
+            .username(claims.getSubject())
+            .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+            .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+            .admin(Boolean.TRUE.equals(claims.get(CLAIM_ADMIN, Boolean.class)))
+            .build();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtToken(authToken) != null;
+  }
+
+  /**
+   * Verifies the signature and expiration of the token and returns its claims in a single pass.
+   *
+   * @return the verified claims, or {@code null} when the token is not valid
+   */
+  public Claims parseJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return jwtParser.parseClaimsJws(authToken).getBody();
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      authFailureLogger.reject(Reason.BAD_SIGNATURE, e.getMessage());
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      authFailureLogger.reject(Reason.MALFORMED, e.getMessage());
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      authFailureLogger.reject(Reason.EXPIRED, e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      authFailureLogger.reject(Reason.UNSUPPORTED, e.getMessage());
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      authFailureLogger.reject(Reason.EMPTY, e.getMessage());
     }
 
-    return false;
+    return null;
   }
 }
@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.cache.BloomFilter;
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+/**
+ * In-memory view of the REVOKED_TOKENS table, checked on every authenticated request.
+ * A Bloom filter answers the common "not revoked" case without touching the exact set,
+ * which only has to confirm the rare positives. The view is rebuilt from the table on startup
+ * and periodically, which also drops the entries of tokens that have expired anyway.
+ */
+@Component
+public class TokenRevocationList {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final int expectedRevocations;
+
+  private volatile Snapshot snapshot;
+
+  public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                             @Value("${oc.app.expectedRevocations}") int expectedRevocations) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.expectedRevocations = expectedRevocations;
+    this.snapshot = new Snapshot(expectedRevocations);
+  }
+
+  public boolean isRevoked(String jti) {
+    if (jti == null) {
+      return false;
+    }
+    Snapshot current = snapshot;
+    return current.bloomFilter.mightContain(jti) && current.revoked.contains(jti);
+  }
+
+  /**
+   * Revokes the token with a single insert, which only one of several concurrent callers can win.
+   *
+   * @return true when this call revoked the token, false when it was already revoked
+   */
+  public boolean revoke(String jti, Date expiresAt) {
+    if (jti == null || expiresAt == null || isRevoked(jti)) {
+      return false;
+    }
+
+    boolean inserted = revokedTokenRepository.insertIfAbsent(jti, expiresAt) == 1;
+    // Added either way: a lost race means another call or instance revoked it first
+    synchronized (this) {
+      snapshot.add(jti);
+    }
+    return inserted;
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${oc.app.revocationRebuildMs}", initialDelayString = "${oc.app.revocationRebuildMs}")
+  public synchronized void rebuild() {
+    Date now = new Date();
+    revokedTokenRepository.deleteExpired(now);
+    List<RevokedToken> revokedTokens = revokedTokenRepository.findByExpiresAtAfter(now);
+
+    Snapshot rebuilt = new Snapshot(Math.max(expectedRevocations, revokedTokens.size() * 2));
+    for (RevokedToken revokedToken : revokedTokens) {
+      rebuilt.add(revokedToken.getJti());
+    }
+    snapshot = rebuilt;
+    logger.info("Token revocation list rebuilt with {} entries", revokedTokens.size());
+  }
+
+  private static final class Snapshot {
+    private final BloomFilter bloomFilter;
+
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+
+    private Snapshot(int expectedInsertions) {
+      this.bloomFilter = new BloomFilter(expectedInsertions, FALSE_POSITIVE_RATE);
+    }
+
+    private void add(String jti) {
+      revoked.add(jti);
+      bloomFilter.add(jti);
+    }
+  }
+}
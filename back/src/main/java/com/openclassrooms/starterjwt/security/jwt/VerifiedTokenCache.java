@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.cache.BoundedExpiringCache;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Remembers the claims of tokens whose signature has already been verified, so that a client sending
+ * the same bearer token on every request only pays for a SHA-256 digest and a map lookup.
+ * Entries expire together with the token itself.
+ */
+@Component
+public class VerifiedTokenCache {
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private final BoundedExpiringCache<String, Claims> cache;
+
+  public VerifiedTokenCache(MeterRegistry meterRegistry, @Value("${oc.app.jwtCacheSize}") int maximumSize) {
+    this.cache = new BoundedExpiringCache<>(maximumSize);
+    this.cache.bindTo(meterRegistry, "verifiedTokens");
+  }
+
+  public Claims get(String token) {
+    return cache.get(digest(token));
+  }
+
+  public void put(String token, Claims claims) {
+    if (claims.getExpiration() != null) {
+      cache.put(digest(token), claims, claims.getExpiration().getTime());
+    }
+  }
+
+  private static String digest(String token) {
+    MessageDigest sha256 = SHA_256.get();
+    return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+  }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the BCrypt cost once at startup so that hashing a password takes about
+ * {@code oc.app.bcryptTargetMs} on the machine the application actually runs on.
+ * The cost never goes below {@code oc.app.bcryptMinStrength}, whatever the hardware.
+ */
+@Component
+public class BCryptStrengthCalibrator {
+  private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+  private static final Pattern BCRYPT_PREFIX = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+  private static final int SAMPLES = 3;
+
+  private final int strength;
+
+  public BCryptStrengthCalibrator(@Value("${oc.app.bcryptTargetMs}") long targetMillis,
+                                  @Value("${oc.app.bcryptMinStrength}") int minStrength,
+                                  @Value("${oc.app.bcryptMaxStrength}") int maxStrength) {
+    this.strength = targetMillis > 0 ? calibrate(targetMillis, minStrength, maxStrength) : minStrength;
+    logger.info("Using BCrypt strength {}", strength);
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  /**
+   * @return {@code true} when the hash was produced with another cost than the calibrated one
+   */
+  public boolean hasDifferentStrength(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+    return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+  }
+
+  /**
+   * Times the minimum cost and extrapolates, each additional cost level doubling the hashing time.
+   */
+  public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+    encoder.encode("warm-up");
+
+    long fastestNanos = Long.MAX_VALUE;
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+    }
+
+    double ratio = targetMillis * 1_000_000d / Math.max(fastestNanos, 1);
+    int extraLevels = ratio < 1 ? 0 : (int) Math.floor(Math.log(ratio) / Math.log(2));
+    return Math.min(maxStrength, minStrength + extraLevels);
+  }
+}
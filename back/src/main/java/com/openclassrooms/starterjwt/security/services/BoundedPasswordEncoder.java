@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.exception.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the hashing work of another {@link PasswordEncoder} on a dedicated, fixed-size pool with a bounded queue.
+ * A burst of logins can then only use as many cores as the pool has threads; once the queue is full the
+ * caller gets a {@link HashingCapacityExceededException} instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+  private final PasswordEncoder delegate;
+
+  private final ThreadPoolExecutor executor;
+
+  private final long retryAfterSeconds;
+
+  private final Timer hashTimer;
+
+  private final Counter rejectedCounter;
+
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+    Gauge.builder("auth.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+        .register(meterRegistry);
+    Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+        .register(meterRegistry);
+    this.hashTimer = Timer.builder("auth.hashing.latency")
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Callable<T> hashing) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> hashTimer.recordCallable(hashing));
+    } catch (RejectedExecutionException e) {
+      rejectedCounter.increment();
+      throw new HashingCapacityExceededException(retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private static final class HashingThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
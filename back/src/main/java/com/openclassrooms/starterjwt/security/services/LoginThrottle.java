@@ -0,0 +1,180 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits login attempts per email and per client IP over a sliding window of {@code oc.app.loginThrottleWindowMs},
+ * before any password is hashed or any user is loaded.
+ * <p>
+ * Keys are hashed onto a fixed number of stripes, each holding the attempt counts of the current and previous
+ * windows in lock-free counters, so memory stays bounded whatever the number of distinct emails or addresses.
+ * Keys sharing a stripe share its count: the stripe count trades memory for false throttling.
+ */
+@Component
+public class LoginThrottle {
+  private final SlidingWindowCounters emailCounters;
+
+  private final SlidingWindowCounters clientCounters;
+
+  private final int maxPerEmail;
+
+  private final int maxPerClient;
+
+  private final long windowMillis;
+
+  private final Counter emailThrottled;
+
+  private final Counter clientThrottled;
+
+  public LoginThrottle(MeterRegistry meterRegistry,
+                       @Value("${oc.app.loginThrottleStripes}") int stripes,
+                       @Value("${oc.app.loginThrottleMaxPerEmail}") int maxPerEmail,
+                       @Value("${oc.app.loginThrottleMaxPerClient}") int maxPerClient,
+                       @Value("${oc.app.loginThrottleWindowMs}") long windowMillis) {
+    this.emailCounters = new SlidingWindowCounters(stripes);
+    this.clientCounters = new SlidingWindowCounters(stripes);
+    this.maxPerEmail = maxPerEmail;
+    this.maxPerClient = maxPerClient;
+    this.windowMillis = windowMillis;
+    this.emailThrottled = Counter.builder("auth.login.throttled").tag("key", "email").register(meterRegistry);
+    this.clientThrottled = Counter.builder("auth.login.throttled").tag("key", "client").register(meterRegistry);
+  }
+
+  /**
+   * Counts a login attempt if it is admitted. Rejected attempts are not counted, so that retrying while throttled
+   * does not extend the wait.
+   *
+   * @return 0 when the attempt may proceed, otherwise the number of seconds to wait before retrying
+   */
+  public long acquire(String email, String clientAddress) {
+    return acquire(email, clientAddress, System.currentTimeMillis());
+  }
+
+  public long acquire(String email, String clientAddress, long nowMillis) {
+    long window = nowMillis / windowMillis;
+    long elapsed = nowMillis % windowMillis;
+
+    // The client is checked first: an address over its limit must not keep filling the email stripes
+    int clientStripe = -1;
+    if (clientAddress != null) {
+      clientStripe = clientCounters.stripe(clientAddress);
+      if (!clientCounters.tryAcquire(clientStripe, window, elapsed, windowMillis, maxPerClient)) {
+        clientThrottled.increment();
+        return toSeconds(clientCounters.millisUntilAdmitted(clientStripe, window, elapsed, windowMillis, maxPerClient));
+      }
+    }
+
+    int emailStripe = emailCounters.stripe(email != null ? email.toLowerCase(Locale.ROOT) : "");
+    if (!emailCounters.tryAcquire(emailStripe, window, elapsed, windowMillis, maxPerEmail)) {
+      // The attempt is not admitted after all: it does not count against the client either
+      if (clientStripe >= 0) {
+        clientCounters.release(clientStripe, window);
+      }
+      emailThrottled.increment();
+      return toSeconds(emailCounters.millisUntilAdmitted(emailStripe, window, elapsed, windowMillis, maxPerEmail));
+    }
+    return 0;
+  }
+
+  private static long toSeconds(long millis) {
+    return Math.max(1, (millis + 999) / 1000);
+  }
+
+  /**
+   * Two slots per stripe, one per window parity. Each slot packs the window number in its high bits and the
+   * attempt count in its low bits, so that a slot is moved to a new window and updated in a single CAS.
+   * <p>
+   * The sliding estimate at {@code elapsed} ms into the current window is
+   * {@code current + previous * (1 - elapsed / window)}.
+   */
+  private static final class SlidingWindowCounters {
+    private static final int COUNT_BITS = 24;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /** Absorbs rounding, so that the wait returned by millisUntilAdmitted is always enough. */
+    private static final double EPSILON = 1e-9;
+
+    private final AtomicLongArray slots;
+
+    private final int stripeMask;
+
+    SlidingWindowCounters(int stripes) {
+      int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+      this.slots = new AtomicLongArray(size * 2);
+      this.stripeMask = size - 1;
+    }
+
+    /**
+     * Counts one more attempt only if the estimate stays within the limit.
+     */
+    boolean tryAcquire(int stripe, long window, long elapsed, long windowMillis, int limit) {
+      int current = stripe * 2 + (int) (window & 1);
+      double previous = count(stripe * 2 + (int) ((window + 1) & 1), window - 1)
+          * (1 - (double) elapsed / windowMillis);
+      while (true) {
+        long packed = slots.get(current);
+        long count = (packed >>> COUNT_BITS) == window ? (packed & COUNT_MASK) : 0;
+        if (count + 1 + previous > limit + EPSILON || count == COUNT_MASK) {
+          return false;
+        }
+        if (slots.compareAndSet(current, packed, (window << COUNT_BITS) | (count + 1))) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Gives back an attempt counted by {@link #tryAcquire} in the same window.
+     */
+    void release(int stripe, long window) {
+      int current = stripe * 2 + (int) (window & 1);
+      while (true) {
+        long packed = slots.get(current);
+        if ((packed >>> COUNT_BITS) != window || (packed & COUNT_MASK) == 0) {
+          return;
+        }
+        if (slots.compareAndSet(current, packed, packed - 1)) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * @return how long until the estimate has faded enough for one more attempt, if none is admitted meanwhile
+     */
+    long millisUntilAdmitted(int stripe, long window, long elapsed, long windowMillis, int limit) {
+      long current = count(stripe * 2 + (int) (window & 1), window);
+      long previous = count(stripe * 2 + (int) ((window + 1) & 1), window - 1);
+      long allowed = limit - 1;
+      // Integer division rounds the remaining share down, hence the wait up
+      if (current <= allowed && previous > 0) {
+        // Later in this window, once enough of the previous one has slid out
+        return Math.max(0, windowMillis - (allowed - current) * windowMillis / previous - elapsed);
+      }
+      // In the next window, once enough of this one has slid out
+      long inNextWindow = current > allowed ? windowMillis - allowed * windowMillis / current : 0;
+      return windowMillis - elapsed + inNextWindow;
+    }
+
+    private long count(int slot, long window) {
+      long packed = slots.get(slot);
+      return (packed >>> COUNT_BITS) == window ? (packed & COUNT_MASK) : 0;
+    }
+
+    int stripe(String key) {
+      int h = key.hashCode();
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      return h & stripeMask;
+    }
+  }
+}
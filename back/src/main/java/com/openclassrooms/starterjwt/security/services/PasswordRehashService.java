@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.starterjwt.exception.HashingCapacityExceededException;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+/**
+ * Re-encodes, after a successful login, the passwords stored with another BCrypt cost than the calibrated one.
+ * The work is done on a single background thread so that the login response does not wait for a second hash;
+ * when that thread is busy the rehash is simply skipped and retried on a later login.
+ */
+@Service
+public class PasswordRehashService {
+  private static final Logger logger = LoggerFactory.getLogger(PasswordRehashService.class);
+
+  private static final int QUEUE_CAPACITY = 100;
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final UserRepository userRepository;
+
+  private final UserDetailsServiceImpl userDetailsService;
+
+  private final BCryptStrengthCalibrator strengthCalibrator;
+
+  private final ThreadPoolExecutor executor;
+
+  public PasswordRehashService(PasswordEncoder passwordEncoder,
+                               UserRepository userRepository,
+                               UserDetailsServiceImpl userDetailsService,
+                               BCryptStrengthCalibrator strengthCalibrator) {
+    this.passwordEncoder = passwordEncoder;
+    this.userRepository = userRepository;
+    this.userDetailsService = userDetailsService;
+    this.strengthCalibrator = strengthCalibrator;
+    this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+          Thread thread = new Thread(runnable, "password-rehash");
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+  }
+
+  public void rehashIfNeeded(UserDetailsImpl user, String rawPassword) {
+    if (!strengthCalibrator.hasDifferentStrength(user.getPassword())) {
+      return;
+    }
+
+    executor.execute(() -> rehash(user, rawPassword));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void rehash(UserDetailsImpl user, String rawPassword) {
+    try {
+      String encodedPassword = passwordEncoder.encode(rawPassword);
+      // Only replaces the hash that was verified, never a password changed in the meantime
+      if (userRepository.updatePassword(user.getId(), user.getPassword(), encodedPassword) > 0) {
+        userDetailsService.evict(user.getUsername());
+      }
+    } catch (HashingCapacityExceededException e) {
+      logger.debug("Skipping password rehash of user {}: hashing pool is full", user.getId());
+    } catch (RuntimeException e) {
+      logger.warn("Password rehash of user {} failed: {}", user.getId(), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.cache.BloomFilter;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+/**
+ * Bloom filter of the emails in USERS, so that a sign-up for an email that was never registered
+ * skips the duplicate lookup. It never forgets an email it has seen: deleted accounts stay
+ * "maybe registered" until the periodic rebuild, which only costs the query the filter would
+ * otherwise have saved.
+ * <p>
+ * A miss may be stale, since accounts created by another instance or inserted directly in USERS
+ * are only {@link #add added} once they log in here or at the next rebuild. It is therefore never
+ * used to reject anything: a stale miss at sign-up is caught by the unique constraint on the email.
+ */
+@Component
+public class RegisteredEmailFilter {
+  private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final UserRepository userRepository;
+
+  private final int expectedUsers;
+
+  // Null until the first build: every email may then be registered
+  private volatile BloomFilter bloomFilter;
+
+  public RegisteredEmailFilter(UserRepository userRepository,
+                               @Value("${oc.app.expectedUsers}") int expectedUsers) {
+    this.userRepository = userRepository;
+    this.expectedUsers = expectedUsers;
+  }
+
+  /**
+   * @return {@code false} only when no account uses this email
+   */
+  public boolean mightBeRegistered(String email) {
+    if (email == null) {
+      return false;
+    }
+    BloomFilter current = bloomFilter;
+    return current == null || current.mightContain(key(email));
+  }
+
+  /**
+   * Records a new account. Called once the account is committed, so that a concurrent rebuild either
+   * reads it from the table or runs before this method and is then updated by it.
+   */
+  public synchronized void add(String email) {
+    if (email != null && bloomFilter != null) {
+      bloomFilter.add(key(email));
+    }
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${oc.app.emailFilterRebuildMs}", initialDelayString = "${oc.app.emailFilterRebuildMs}")
+  public synchronized void rebuild() {
+    List<String> emails = userRepository.findAllEmails();
+
+    BloomFilter rebuilt = new BloomFilter(Math.max(expectedUsers, emails.size() * 2), FALSE_POSITIVE_RATE);
+    for (String email : emails) {
+      rebuilt.add(key(email));
+    }
+    bloomFilter = rebuilt;
+    logger.info("Registered email filter rebuilt with {} entries", emails.size());
+  }
+
+  // Lower-cased like the case-insensitive email lookup done by the database
+  private static String key(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+}
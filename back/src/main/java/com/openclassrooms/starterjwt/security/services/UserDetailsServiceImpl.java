@@ -1,36 +1,80 @@
 package com.openclassrooms.starterjwt.security.services;
 
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.openclassrooms.starterjwt.cache.BoundedExpiringCache;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
   UserRepository userRepository;
 
-  UserDetailsServiceImpl(UserRepository userRepository) {
+  // Keyed by lower-cased email, like the case-insensitive lookup done by the database
+  private final BoundedExpiringCache<String, UserDetailsImpl> userDetailsCache;
+
+  private final long userCacheTtlMs;
+
+  private final RegisteredEmailFilter registeredEmails;
+
+  public UserDetailsServiceImpl(UserRepository userRepository,
+                                RegisteredEmailFilter registeredEmails,
+                                MeterRegistry meterRegistry,
+                                @Value("${oc.app.userCacheSize}") int userCacheSize,
+                                @Value("${oc.app.userCacheTtlMs}") long userCacheTtlMs) {
     this.userRepository = userRepository;
+    this.registeredEmails = registeredEmails;
+    this.userCacheTtlMs = userCacheTtlMs;
+    this.userDetailsCache = new BoundedExpiringCache<>(userCacheSize);
+    this.userDetailsCache.bindTo(meterRegistry, "userDetails");
   }
 
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    String key = cacheKey(username);
+    UserDetailsImpl cached = userDetailsCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    // The email filter is not consulted: it may not know yet an account created by another instance
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
+    registeredEmails.add(user.getEmail());
 
-    return UserDetailsImpl
+    UserDetailsImpl userDetails = UserDetailsImpl
             .builder()
             .id(user.getId())
             .username(user.getEmail())
             .lastName(user.getLastName())
             .firstName(user.getFirstName())
+            .admin(user.isAdmin())
             .password(user.getPassword())
             .build();
+
+    userDetailsCache.put(key, userDetails, System.currentTimeMillis() + userCacheTtlMs);
+    return userDetails;
+  }
+
+  /**
+   * Drops the cached account so that the next lookup reads it again from the database.
+   */
+  public void evict(String email) {
+    if (email != null) {
+      userDetailsCache.invalidate(cacheKey(email));
+    }
+  }
+
+  private static String cacheKey(String email) {
+    return email.toLowerCase(Locale.ROOT);
   }
 
 }
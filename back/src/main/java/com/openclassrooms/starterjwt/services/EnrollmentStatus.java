@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.services;
+
+/**
+ * Outcome of a bulk enrollment for one of the requested users.
+ */
+public enum EnrollmentStatus {
+    ENROLLED,
+    ALREADY_PARTICIPATING,
+    UNKNOWN_USER,
+    SESSION_FULL
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in the session listing, ordered by date then id: the last session of a page.
+ * Clients receive it as an opaque token and send it back to get the next page.
+ */
+public final class SessionCursor {
+    /** Response header carrying the cursor of the next page, absent on the last page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final Date date;
+
+    private final Long id;
+
+    public SessionCursor(Date date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public static String encode(Date date, Long id) {
+        String position = date.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded position, or {@code null} for the first page
+     * @throws BadRequestException when the token was not produced by {@link #encode(Date, Long)}
+     */
+    public static SessionCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf(':');
+            return new SessionCursor(new Date(Long.parseLong(position.substring(0, separator))),
+                    Long.valueOf(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException();
+        }
+    }
+}
@@ -3,76 +3,285 @@ package com.openclassrooms.starterjwt.services;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class SessionService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SESSION_FULL = "Session is full";
+
+    private static final String MORE_PARTICIPANTS_THAN_CAPACITY = "More participants than the session capacity";
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final WaitlistRepository waitlistRepository;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+            WaitlistRepository waitlistRepository) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.waitlistRepository = waitlistRepository;
     }
 
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        checkCapacity(session);
+        Session created = this.sessionRepository.save(session);
+        this.sessionRepository.syncSeatsTaken(created.getId());
+        return created;
     }
 
+    @Transactional
     public void delete(Long id) {
+        this.waitlistRepository.deleteBySession(id);
         this.sessionRepository.deleteById(id);
     }
 
-    public List<Session> findAll() {
-        return this.sessionRepository.findAll();
+    /**
+     * Returns at most {@link #MAX_PAGE_SIZE} sessions following the cursor, or the first ones when it is null.
+     */
+    public Slice<SessionSummary> findPage(SessionCursor cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page follows, without a count query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<SessionSummary> sessions = cursor == null
+                ? this.sessionRepository.findSummaries(limit)
+                : this.sessionRepository.findSummariesAfter(cursor.getDate(), cursor.getId(), limit);
+        return slice(sessions, pageSize);
+    }
+
+    /**
+     * @return the participant IDs of each of the given sessions, in ascending order; sessions without participants
+     * are absent from the map
+     */
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        if (sessionIds.isEmpty()) {
+            return participantIds;
+        }
+        for (Object[] row : this.sessionRepository.findParticipantIds(sessionIds)) {
+            participantIds.computeIfAbsent(((Number) row[0]).longValue(), sessionId -> new ArrayList<>())
+                    .add(((Number) row[1]).longValue());
+        }
+        return participantIds;
     }
 
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        checkCapacity(session);
+        // Locked before the merge reads the participants, so that no booking commits between that read and the write
+        this.sessionRepository.lockFreeSeats(id, 0);
+        Session updated = this.sessionRepository.saveAndFlush(session);
+        // Still under the lock: the participants now stored are the ones to check, whatever the merge kept
+        if (updated.getCapacity() != null && this.sessionRepository.countParticipants(id) > updated.getCapacity()) {
+            throw new BadRequestException(MORE_PARTICIPANTS_THAN_CAPACITY);
+        }
+        this.sessionRepository.syncSeatsTaken(id);
+        // A raised capacity goes to the waiting users first
+        promoteFromWaitlist(id);
+        return updated;
     }
 
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+        // The seat is taken first: its row lock queues concurrent bookings of the session, so none can overbook
+        if (this.sessionRepository.reserveSeat(id) == 0) {
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new BadRequestException(SESSION_FULL);
+        }
+
+        // One conditional INSERT: the session's participants are neither loaded nor rewritten
+        if (this.sessionRepository.addParticipant(id, userId) == 1) {
+            // A user who was waiting for a seat no longer waits, as with enroll
+            this.waitlistRepository.leave(id, userId);
+            return;
+        }
+
+        // Nothing inserted, and the exception rolls the seat back: a missing user or an existing participation
+        if (!this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
+        throw new BadRequestException();
+    }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+    @Transactional
+    public void noLongerParticipate(Long id, Long userId) {
+        if (this.sessionRepository.releaseSeat(id, userId) > 0) {
+            this.sessionRepository.removeParticipant(id, userId);
+            promoteFromWaitlist(id);
+            return;
+        }
+
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
+        throw new BadRequestException();
+    }
+
+    /**
+     * Enrolls a group of users with a constant number of statements whatever its size: one to lock the session,
+     * one to check the users, one batched insert and the seat count. Users are enrolled in the requested order
+     * until the session is full.
+     *
+     * @return the outcome for each distinct requested ID, in the requested order
+     */
+    @Transactional
+    public Map<Long, EnrollmentStatus> enroll(Long id, Collection<Long> userIds) {
+        List<Long> requestedIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        // The session row is locked first, as for a single booking, so that no seat is taken meanwhile
+        Number freeSeats = this.sessionRepository.lockFreeSeats(id, requestedIds.size());
+        if (freeSeats == null) {
+            throw new NotFoundException();
         }
 
-        session.getUsers().add(user);
+        // Users absent from the rows are unknown; a non-null second column means they already participate
+        Map<Long, Boolean> participating = new HashMap<>();
+        for (Object[] row : this.sessionRepository.findParticipation(id, requestedIds)) {
+            participating.put(((Number) row[0]).longValue(), row[1] != null);
+        }
+
+        Map<Long, EnrollmentStatus> results = new LinkedHashMap<>();
+        List<Long> enrolledIds = new ArrayList<>();
+        for (Long userId : requestedIds) {
+            Boolean participates = participating.get(userId);
+            if (participates == null) {
+                results.put(userId, EnrollmentStatus.UNKNOWN_USER);
+            } else if (participates) {
+                results.put(userId, EnrollmentStatus.ALREADY_PARTICIPATING);
+            } else if (enrolledIds.size() < freeSeats.intValue()) {
+                enrolledIds.add(userId);
+                results.put(userId, EnrollmentStatus.ENROLLED);
+            } else {
+                results.put(userId, EnrollmentStatus.SESSION_FULL);
+            }
+        }
 
-        this.sessionRepository.save(session);
+        if (!enrolledIds.isEmpty()) {
+            this.sessionRepository.takeSeats(id, this.sessionRepository.addParticipants(id, enrolledIds));
+            this.waitlistRepository.leaveAll(id, enrolledIds);
+        }
+        return results;
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+    /**
+     * Returns at most {@link #MAX_PAGE_SIZE} waitlist entries, longest waiting first, queued after the given entry,
+     * or the first ones when it is null.
+     */
+    public Slice<WaitlistEntry> findWaitlist(Long id, Long afterEntryId, int size) {
+        if (!this.sessionRepository.existsById(id)) {
             throw new NotFoundException();
         }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<WaitlistEntry> entries = afterEntryId == null
+                ? this.waitlistRepository.findEntries(id, limit)
+                : this.waitlistRepository.findEntriesAfter(id, afterEntryId, limit);
+        return slice(entries, pageSize);
+    }
+
+    /**
+     * @return the 1-based position of the user in the waitlist
+     */
+    public long getWaitlistPosition(Long id, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(id, userId)
+                .orElseThrow(NotFoundException::new);
+        return this.waitlistRepository.countUpTo(id, entry.getId());
+    }
+
+    /**
+     * Queues the user for a seat of a full session.
+     *
+     * @return the 1-based position of the user in the waitlist
+     */
+    @Transactional
+    public long joinWaitlist(Long id, Long userId) {
+        int queued;
+        try {
+            queued = this.waitlistRepository.join(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            // The (session_id, user_id) unique key rejected a concurrent request of the same user
+            throw new BadRequestException();
+        }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (queued == 0) {
+            // Nothing queued: a missing session or user, a session with free seats, or a user already in
+            if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
+                throw new NotFoundException();
+            }
             throw new BadRequestException();
         }
+        return getWaitlistPosition(id, userId);
+    }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+    @Transactional
+    public void leaveWaitlist(Long id, Long userId) {
+        if (this.waitlistRepository.leave(id, userId) > 0) {
+            return;
+        }
+
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
+        throw new BadRequestException();
+    }
+
+    /**
+     * Gives the free seats of the session to the head of its waitlist, in the caller's transaction. The caller has
+     * already locked the session row, so promotions of one session never interleave.
+     */
+    private void promoteFromWaitlist(Long id) {
+        Optional<WaitlistEntry> head;
+        while ((head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(id)).isPresent()
+                && this.sessionRepository.reserveSeat(id) == 1) {
+            Long userId = head.get().getUserId();
+            this.waitlistRepository.leave(id, userId);
+            if (this.sessionRepository.addParticipant(id, userId) == 0) {
+                // The user was deleted while waiting: recount so that the seat goes to the next one
+                this.sessionRepository.syncSeatsTaken(id);
+            }
+        }
+    }
+
+    private void checkCapacity(Session session) {
+        if (session.getCapacity() != null && session.getUsers() != null
+                && session.getUsers().size() > session.getCapacity()) {
+            throw new BadRequestException(MORE_PARTICIPANTS_THAN_CAPACITY);
+        }
+    }
 
-        this.sessionRepository.save(session);
+    // Drops the extra row fetched to detect the next page
+    private static <T> Slice<T> slice(List<T> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageSize) : rows, PageRequest.of(0, pageSize), hasNext);
     }
 }
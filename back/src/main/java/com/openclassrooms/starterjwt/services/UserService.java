@@ -1,22 +1,66 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
+    /** Largest IN-list sent in one query, well below the driver and optimizer limits. */
+    public static final int ID_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public UserService(UserRepository userRepository, UserDetailsServiceImpl userDetailsService) {
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     public void delete(Long id) {
+        Optional<User> user = this.userRepository.findById(id);
         this.userRepository.deleteById(id);
+        // Evicted once the deletion is committed: a login racing with it can no longer cache the account again
+        user.ifPresent(deleted -> this.userDetailsService.evict(deleted.getEmail()));
+        // Access tokens already issued stay valid until they expire; their refresh tokens are refused
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Loads the users with the given IDs with one IN-list query per {@link #ID_BATCH_SIZE} distinct IDs.
+     *
+     * @throws BadRequestException listing the IDs that match no user
+     */
+    public Set<User> findAllById(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Set<User> users = new HashSet<>();
+        for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+            int to = Math.min(from + ID_BATCH_SIZE, distinctIds.size());
+            users.addAll(this.userRepository.findAllById(distinctIds.subList(from, to)));
+        }
+
+        if (users.size() < distinctIds.size()) {
+            Set<Long> foundIds = users.stream().map(User::getId).collect(Collectors.toSet());
+            List<Long> unknownIds = distinctIds.stream()
+                    .filter(id -> !foundIds.contains(id))
+                    .collect(Collectors.toList());
+            throw new BadRequestException("Unknown user IDs: " + unknownIds);
+        }
+        return users;
+    }
 }
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the waitlist of a session, ordered by entry id: the last entry of a page.
+ * Sent to clients as an opaque token under {@link SessionCursor#NEXT_CURSOR_HEADER}, like the session listing.
+ */
+public final class WaitlistCursor {
+    private WaitlistCursor() {
+    }
+
+    public static String encode(Long entryId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(entryId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id of the last entry already returned, or {@code null} for the first page
+     * @throws BadRequestException when the token was not produced by {@link #encode(Long)}
+     */
+    public static Long decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+    }
+}
@@ -4,6 +4,7 @@ package com.openclassrooms.starterjwt.integration;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import com.openclassrooms.starterjwt.exception.HashingCapacityExceededException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
@@ -122,4 +123,102 @@ public void testerLoginAvec_MauvaiseInfo_ReturnePasAutoriser() throws Exception
    .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Unauthorized")) // Type erreur
    .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Bad credentials")); // Message
 }
-}
\ No newline at end of file
+
+/**
+* Test: File de hachage des mots de passe pleine
+* Scénario: L'authentification lève HashingCapacityExceededException
+* Résultat attendu:
+* - Status HTTP 503 Service Unavailable avec Retry-After
+* - Structure d'erreur conforme (écrite par ApiExceptionHandler)
+*/
+@Test
+public void testerLogin_HachageSature_Retourne503() throws Exception {
+ when(authenticationManager.authenticate(any()))
+   .thenThrow(new HashingCapacityExceededException(2));
+
+ mockMvc
+   .perform(
+     MockMvcRequestBuilders
+       .post("/api/auth/login")
+       .content("{ \"email\": \"ibra@test.com\", \"password\": \"password123\" }")
+       .contentType("application/json")
+   )
+   .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+   .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"))
+   .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(503))
+   .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Service Unavailable"));
+}
+
+/**
+* Test: Trop de tentatives de connexion
+* Scénario: Le même email dépasse la limite de tentatives
+* Résultat attendu:
+* - Status HTTP 429 Too Many Requests avec Retry-After
+* - Structure d'erreur conforme (écrite par ApiExceptionHandler)
+*/
+@Test
+public void testerLogin_TropDeTentatives_Retourne429() throws Exception {
+ when(authenticationManager.authenticate(any()))
+   .thenThrow(new BadCredentialsException("Bad credentials"));
+ String requestBody = "{ \"email\": \"throttle@test.com\", \"password\": \"mauvais\" }";
+
+ // La limite par email (oc.app.loginThrottleMaxPerEmail) est atteinte, la tentative suivante est rejetée
+ for (int i = 0; i < 10; i++) {
+   mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login").content(requestBody).contentType("application/json"));
+ }
+
+ mockMvc
+   .perform(
+     MockMvcRequestBuilders
+       .post("/api/auth/login")
+       .content(requestBody)
+       .contentType("application/json")
+   )
+   .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+   .andExpect(MockMvcResultMatchers.header().exists("Retry-After"))
+   .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(429))
+   .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Too many login attempts, please retry later"));
+}
+
+/**
+* Test: Renouvellement avec un refresh token invalide
+* Résultat attendu:
+* - Status HTTP 401 Unauthorized
+* - Structure d'erreur conforme (écrite par ApiExceptionHandler)
+*/
+@Test
+public void testerRefresh_TokenInvalide_Retourne401() throws Exception {
+ mockMvc
+   .perform(
+     MockMvcRequestBuilders
+       .post("/api/auth/refresh")
+       .content("{ \"refreshToken\": \"invalide\" }")
+       .contentType("application/json")
+   )
+   .andExpect(MockMvcResultMatchers.status().isUnauthorized())
+   .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(401))
+   .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Refresh token is invalid or revoked"));
+}
+
+/**
+* Test: Requête CORS preflight
+* Scénario: Le navigateur envoie un OPTIONS avant un appel authentifié
+* Résultat attendu:
+* - Status HTTP 200 OK sans token
+* - En-têtes CORS de la configuration centrale
+*/
+@Test
+public void testerPreflight_Retourne_EnTetesCors() throws Exception {
+ mockMvc
+   .perform(
+     MockMvcRequestBuilders
+       .options("/api/session")
+       .header("Origin", "http://localhost:4200")
+       .header("Access-Control-Request-Method", "GET")
+       .header("Access-Control-Request-Headers", "Authorization")
+   )
+   .andExpect(MockMvcResultMatchers.status().isOk()) // Répondu avant la chaîne de sécurité
+   .andExpect(MockMvcResultMatchers.header().string("Access-Control-Allow-Origin", "*"))
+   .andExpect(MockMvcResultMatchers.header().string("Access-Control-Max-Age", "3600"));
+}
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Compte les requêtes SQL émises par une connexion réelle, sans mock de l'AuthenticationManager
+ * (la requête HTTP valide sa propre transaction, l'utilisateur est donc supprimé après chaque test)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LoginQueryCountIntTest {
+
+  private static final String EMAIL = "comptage@login.com";
+
+  private static final String REQUEST_BODY = "{ \"email\": \"" + EMAIL + "\", \"password\": \"password123\" }";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Autowired
+  private UserDetailsServiceImpl userDetailsService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private User user;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  public void setup() {
+    // Encodé avec le coût calibré : la connexion ne déclenche pas de ré-encodage
+    user = userRepository.save(new User(EMAIL, "Nom", "Prenom", passwordEncoder.encode("password123"), false));
+    userDetailsService.evict(EMAIL);
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+  }
+
+  @AfterEach
+  public void cleanup() {
+    userRepository.deleteById(user.getId());
+    userDetailsService.evict(EMAIL);
+  }
+
+  /**
+   * Test : la connexion ne lit l'utilisateur qu'une fois, dans l'AuthenticationManager,
+   * même si le compte a été inséré sans passer par /register (inconnu du filtre des emails)
+   */
+  @Test
+  public void testerLogin_UneSeuleRequete() throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.post("/api/auth/login").content(REQUEST_BODY).contentType("application/json"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(user.getId()))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.admin").value(false));
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  /**
+   * Test : une seconde connexion est servie par le cache des UserDetails, sans requête
+   */
+  @Test
+  public void testerSecondLogin_AucuneRequete() throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.post("/api/auth/login").content(REQUEST_BODY).contentType("application/json"))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+    statistics.clear();
+
+    mockMvc
+      .perform(MockMvcRequestBuilders.post("/api/auth/login").content(REQUEST_BODY).contentType("application/json"))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+}
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -43,7 +44,6 @@ public void testerUserRegister_RetourneSuccess() throws Exception {
  String requestBody = "{ \"email\": \"fatou@test.com\", \"firstName\": \"fatou\", \"lastName\": \"dieng\", \"password\": \"password123\" }";
 
  // 2. Configuration des mocks
- when(userRepository.existsByEmail(any())).thenReturn(false); // Simule un email non existant
  when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword"); // Simule le chiffrement
 
  // 3. Exécution de la requête et vérifications
@@ -75,7 +75,9 @@ public void testerUserRegister_AvecEmailExistant_Retourne_BadRequest() throws Ex
  String requestBody = "{ \"email\": \"ibra@test.com\", \"firstName\": \"ibra\", \"lastName\": \"dieng\", \"password\": \"password123\" }";
 
  // 2. Configuration des mocks
- when(userRepository.existsByEmail(any())).thenReturn(true); // Simule un email existant
+ when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+ when(userRepository.save(any()))
+   .thenThrow(new DataIntegrityViolationException("Duplicate entry")); // Simule un email existant
 
  // 3. Exécution de la requête et vérifications
  mockMvc
@@ -0,0 +1,203 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Réservations concurrentes sur une session à places limitées : chaque thread
+ * valide sa propre transaction, les données sont donc supprimées après chaque test
+ */
+@SpringBootTest
+public class SessionBookingConcurrencyIntTest {
+
+  private static final int CAPACITY = 20;
+  private static final int USERS = 200;
+  private static final int THREADS = 32;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TeacherRepository teacherRepository;
+
+  private Teacher teacher;
+  private Session session;
+  private List<User> users;
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    teacher = teacherRepository.save(new Teacher().setFirstName("Prof").setLastName("Concurrence"));
+    session = sessionRepository.save(Session.builder()
+      .name("Cours populaire")
+      .date(new Date())
+      .description("Places limitées")
+      .teacher(teacher)
+      .capacity(CAPACITY)
+      .build());
+    users = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      users.add(new User("place" + i + "@concurrence.com", "Nom", "Prenom", "password", false));
+    }
+    users = userRepository.saveAll(users);
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  public void cleanup() {
+    executor.shutdownNow();
+    sessionRepository.deleteById(session.getId());
+    userRepository.deleteAll(users);
+    teacherRepository.delete(teacher);
+  }
+
+  /**
+   * Test : 200 utilisateurs réservent au même instant 20 places, exactement 20 réussissent
+   */
+  @Test
+  public void testerReservationsSimultanees_JamaisDeSurreservation() throws Exception {
+    AtomicInteger booked = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+
+    runConcurrently(users, user -> {
+      try {
+        sessionService.participate(session.getId(), user.getId());
+        booked.incrementAndGet();
+      } catch (BadRequestException e) {
+        rejected.incrementAndGet();
+      }
+    });
+
+    assertThat(booked.get()).isEqualTo(CAPACITY);
+    assertThat(rejected.get()).isEqualTo(USERS - CAPACITY);
+    assertSeatAccounting(CAPACITY);
+  }
+
+  /**
+   * Test : des participants se désistent pendant que d'autres réservent, le compte des places reste exact
+   */
+  @Test
+  public void testerDesistementsEtReservationsSimultanes_ComptageExact() throws Exception {
+    List<User> participants = users.subList(0, CAPACITY);
+    for (User user : participants) {
+      sessionService.participate(session.getId(), user.getId());
+    }
+    List<User> leaving = participants.subList(0, CAPACITY / 2);
+    List<User> candidates = users.subList(CAPACITY, USERS);
+    List<User> everyone = new ArrayList<>(leaving);
+    everyone.addAll(candidates);
+    Collections.shuffle(everyone);
+    AtomicInteger booked = new AtomicInteger();
+
+    runConcurrently(everyone, user -> {
+      if (leaving.contains(user)) {
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+        return;
+      }
+      try {
+        sessionService.participate(session.getId(), user.getId());
+        booked.incrementAndGet();
+      } catch (BadRequestException e) {
+        // Session complète
+      }
+    });
+
+    // Une place libérée est reprise au plus une fois, et seules les réservations réussies sont comptées
+    assertThat(booked.get()).isBetween(0, leaving.size());
+    assertSeatAccounting(CAPACITY - leaving.size() + booked.get());
+  }
+
+  /**
+   * Test : un administrateur remplace les participants pendant que d'autres réservent,
+   * la session ne dépasse jamais sa capacité
+   */
+  @Test
+  public void testerMiseAJourEtReservationsSimultanees_JamaisDeSurreservation() throws Exception {
+    List<User> participants = users.subList(0, CAPACITY - 5);
+    for (User user : participants) {
+      sessionService.participate(session.getId(), user.getId());
+    }
+    // Chaque "éditeur" déclenche une mise à jour qui remplit la session avec la même liste
+    List<User> editors = users.subList(CAPACITY - 5, CAPACITY);
+    Set<User> edited = new HashSet<>(users.subList(0, CAPACITY));
+    List<User> everyone = new ArrayList<>(users.subList(CAPACITY - 5, USERS));
+    Collections.shuffle(everyone);
+
+    runConcurrently(everyone, user -> {
+      if (editors.contains(user)) {
+        sessionService.update(session.getId(), Session.builder()
+          .name(session.getName())
+          .date(session.getDate())
+          .description(session.getDescription())
+          .teacher(teacher)
+          .capacity(CAPACITY)
+          .users(new HashSet<>(edited))
+          .build());
+        return;
+      }
+      try {
+        sessionService.participate(session.getId(), user.getId());
+      } catch (BadRequestException e) {
+        // Session complète
+      }
+    });
+
+    // La dernière mise à jour a fixé les participants, plus aucune place n'a pu être prise ensuite
+    assertSeatAccounting(CAPACITY);
+    assertThat(sessionRepository.findById(session.getId()).get().getUsers()).isEqualTo(edited);
+  }
+
+  private void runConcurrently(List<User> users, Consumer<User> action) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (User user : users) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        action.accept(user);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+  }
+
+  private void assertSeatAccounting(int expectedSeats) {
+    Session reloaded = sessionRepository.findById(session.getId()).get();
+    assertThat(reloaded.getSeatsTaken()).isEqualTo(expectedSeats);
+    assertThat(reloaded.getUsers()).hasSize(expectedSeats);
+  }
+}
@@ -0,0 +1,107 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
+import com.openclassrooms.starterjwt.services.SessionService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inscription groupée d'utilisateurs à une session à places limitées
+ * (les données sont annulées à la fin de chaque test)
+ */
+@SpringBootTest
+@Transactional
+public class SessionEnrollmentIntTest {
+
+  private static final int CAPACITY = 40;
+  private static final int USERS = 50;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TeacherRepository teacherRepository;
+
+  private Long sessionId;
+  private List<Long> userIds;
+
+  @BeforeEach
+  public void setup() {
+    Teacher teacher = teacherRepository.save(new Teacher().setFirstName("Prof").setLastName("Groupe"));
+    sessionId = sessionRepository.save(Session.builder()
+      .name("Cours entreprise")
+      .date(new Date())
+      .description("Inscription groupée")
+      .teacher(teacher)
+      .capacity(CAPACITY)
+      .build()).getId();
+    userIds = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      userIds.add(userRepository.save(new User("groupe" + i + "@entreprise.com", "Nom", "Prenom", "password", false)).getId());
+    }
+  }
+
+  /**
+   * Test : 50 utilisateurs pour 40 places, dont un déjà inscrit et un ID inconnu,
+   * avec un nombre constant de requêtes
+   */
+  @Test
+  public void testerInscriptionGroupee_ResultatsEtNombreDeRequetes() {
+    // Arrange
+    sessionService.participate(sessionId, userIds.get(0));
+    List<Long> requested = new ArrayList<>(userIds);
+    requested.add(-1L);
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+
+    // Act
+    Map<Long, EnrollmentStatus> results = sessionService.enroll(sessionId, requested);
+
+    // Assert : verrou, vérification, insertion groupée, places, liste d'attente
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    assertThat(results).hasSize(USERS + 1);
+    assertThat(results.get(userIds.get(0))).isEqualTo(EnrollmentStatus.ALREADY_PARTICIPATING);
+    assertThat(results.get(-1L)).isEqualTo(EnrollmentStatus.UNKNOWN_USER);
+    // Les places restantes vont aux premiers demandés
+    assertThat(results.get(userIds.get(CAPACITY - 1))).isEqualTo(EnrollmentStatus.ENROLLED);
+    assertThat(results.get(userIds.get(CAPACITY))).isEqualTo(EnrollmentStatus.SESSION_FULL);
+    assertThat(results.values().stream().filter(EnrollmentStatus.ENROLLED::equals).count()).isEqualTo(CAPACITY - 1);
+
+    List<Long> participants = sessionService.findParticipantIds(Collections.singletonList(sessionId)).get(sessionId);
+    assertThat(participants).hasSize(CAPACITY);
+    entityManager.clear();
+    assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(CAPACITY);
+  }
+}
@@ -3,6 +3,7 @@ package com.openclassrooms.starterjwt.integration;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -15,17 +16,24 @@ import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.EnrollmentRequest;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
 import com.openclassrooms.starterjwt.services.SessionService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -48,7 +56,7 @@ public class SessionIntTest {
   private Date fixedDate = new Date(1234567890123L);
   private User user1 = new User();
   private User user2 = new User();
-  private java.util.List<User> userList = new ArrayList<User>();
+  private java.util.Set<User> userList = new java.util.HashSet<User>();
 
   private Session mockSession;
   private SessionDto mockSessionDto;
@@ -115,16 +123,18 @@ public class SessionIntTest {
   @WithMockUser
   public void testerSession_FindAll_RetourneListeSessionDto()
     throws Exception {
-    Session session = mockSession;
-    List<Session> sessionList = new ArrayList<>();
-    sessionList.add(session);
+    SessionSummary summary = mock(SessionSummary.class);
+    when(summary.getId()).thenReturn(mockSession.getId());
+    List<SessionSummary> summaryList = new ArrayList<>();
+    summaryList.add(summary);
 
     SessionDto sessionDto = mockSessionDto;
-    List<SessionDto> sessionDtoList = new ArrayList<>();
-    sessionDtoList.add(sessionDto);
+    Map<Long, List<Long>> participantIds = new HashMap<>();
+    participantIds.put(mockSession.getId(), sessionDto.getUsers());
 
-    when(sessionService.findAll()).thenReturn(sessionList);
-    when(sessionMapper.toDto(sessionList)).thenReturn(sessionDtoList);
+    when(sessionService.findPage(null, 50)).thenReturn(new SliceImpl<>(summaryList));
+    when(sessionService.findParticipantIds(any())).thenReturn(participantIds);
+    when(sessionMapper.toDto(summary, sessionDto.getUsers())).thenReturn(sessionDto);
 
     mockMvc
       .perform(MockMvcRequestBuilders.get("/api/session"))
@@ -133,7 +143,7 @@ public class SessionIntTest {
         MockMvcResultMatchers.jsonPath("$[0].id").value(sessionDto.getId())
       );
 
-    verify(sessionService, times(1)).findAll();
+    verify(sessionService, times(1)).findPage(null, 50);
   }
 
   
@@ -468,7 +478,61 @@ public class SessionIntTest {
 
     verify(sessionService, times(1)).noLongerParticipate(sessionId, userId);
   }
-  
+
+  /**
+   * Test : Inscription groupée
+   * Cas : Succès
+   * Vérifie que :
+   * - Le statut HTTP est 200 (OK)
+   * - Le résultat de chaque ID est renvoyé
+   */
+  @Test
+  @WithMockUser
+  public void testerSession_InscriptionGroupee_RetourneResultatParId()
+    throws Exception {
+    Map<Long, EnrollmentStatus> results = new LinkedHashMap<>();
+    results.put(2L, EnrollmentStatus.ENROLLED);
+    results.put(3L, EnrollmentStatus.UNKNOWN_USER);
+    when(sessionService.enroll(1L, Arrays.asList(2L, 3L))).thenReturn(results);
+    EnrollmentRequest request = new EnrollmentRequest();
+    request.setUserIds(Arrays.asList(2L, 3L));
+
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders.post("/api/session/{id}/participants", 1L)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(request))
+      )
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.2").value("ENROLLED"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.3").value("UNKNOWN_USER"));
+  }
+
+  /**
+   * Test : Inscription groupée sans utilisateur
+   * Cas : Échec
+   * Vérifie que :
+   * - Le statut HTTP est 400 (Bad Request)
+   * - Le service n'est pas appelé
+   */
+  @Test
+  @WithMockUser
+  public void testerSession_InscriptionGroupee_ListeVide_RetourneBadRequest()
+    throws Exception {
+    EnrollmentRequest request = new EnrollmentRequest();
+    request.setUserIds(new ArrayList<>());
+
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders.post("/api/session/{id}/participants", 1L)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(asJsonString(request))
+      )
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    verify(sessionService, never()).enroll(anyLong(), any());
+  }
+
   /**
    * Convertit un objet en chaîne JSON
    * @param obj L'objet à convertir
@@ -0,0 +1,108 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionService;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compte les requêtes SQL émises pour lister les sessions d'un jeu de données
+ * (les données sont annulées à la fin de chaque test)
+ */
+@SpringBootTest
+@Transactional
+public class SessionQueryCountIntTest {
+
+  private static final int SESSIONS = 12;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private SessionService sessionService;
+
+  private Statistics statistics;
+
+  private Session lastSession;
+
+  @BeforeEach
+  public void setup() {
+    // Jeu de données : 3 professeurs, 8 utilisateurs, 12 sessions avec leurs participants
+    Teacher[] teachers = new Teacher[3];
+    for (int i = 0; i < teachers.length; i++) {
+      teachers[i] = new Teacher().setFirstName("Prof" + i).setLastName("Yoga");
+      entityManager.persist(teachers[i]);
+    }
+    User[] users = new User[8];
+    for (int i = 0; i < users.length; i++) {
+      users[i] = new User("compte" + i + "@comptage.com", "Nom", "Prenom", "password", false);
+      entityManager.persist(users[i]);
+    }
+    for (int i = 0; i < SESSIONS; i++) {
+      Set<User> participants = new HashSet<>();
+      for (int j = 0; j <= i % users.length; j++) {
+        participants.add(users[j]);
+      }
+      lastSession = Session.builder()
+        .name("Session " + i)
+        .date(new Date(1700000000000L + i * 3600000L))
+        .description("Description")
+        .teacher(teachers[i % teachers.length])
+        .users(participants)
+        .build();
+      entityManager.persist(lastSession);
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+  }
+
+  /**
+   * Test : GET /api/session/{id} charge la session, son professeur et ses participants en une seule requête
+   * (professeur et participants sont joints par le chargement EAGER)
+   */
+  @Test
+  public void testerGetById_UneSeuleRequete() {
+    Session session = sessionService.getById(lastSession.getId());
+    // Accéder au professeur et aux participants ne doit déclencher aucune requête supplémentaire
+    assertThat(session.getTeacher().getFirstName()).isEqualTo("Prof" + (SESSIONS - 1) % 3);
+    assertThat(session.getUsers()).hasSize(lastSession.getUsers().size());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  /**
+   * Test : une page de la liste coûte deux requêtes, quel que soit le nombre de sessions et de participants
+   */
+  @Test
+  public void testerListePaginee_DeuxRequetes() {
+    List<SessionSummary> page = sessionService.findPage(null, SESSIONS).getContent();
+    Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(
+      page.stream().map(SessionSummary::getId).collect(Collectors.toList()));
+
+    assertThat(page).hasSize(SESSIONS);
+    assertThat(participantIds).isNotEmpty();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+}
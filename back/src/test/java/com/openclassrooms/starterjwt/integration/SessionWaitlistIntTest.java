@@ -0,0 +1,199 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Liste d'attente d'une session complète, de l'inscription à la promotion
+ * (les données sont annulées à la fin de chaque test)
+ */
+@SpringBootTest
+@Transactional
+public class SessionWaitlistIntTest {
+
+  private static final int CAPACITY = 2;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TeacherRepository teacherRepository;
+
+  private Long sessionId;
+  private List<Long> userIds;
+
+  @BeforeEach
+  public void setup() {
+    // Une session de 2 places et 6 utilisateurs
+    Teacher teacher = teacherRepository.save(new Teacher().setFirstName("Prof").setLastName("Attente"));
+    sessionId = sessionRepository.save(Session.builder()
+      .name("Cours complet")
+      .date(new Date())
+      .description("Liste d'attente")
+      .teacher(teacher)
+      .capacity(CAPACITY)
+      .build()).getId();
+    userIds = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      userIds.add(userRepository.save(new User("attente" + i + "@liste.com", "Nom", "Prenom", "password", false)).getId());
+    }
+  }
+
+  /**
+   * Test : on ne rejoint la liste d'attente que d'une session complète
+   */
+  @Test
+  public void testerRejoindre_SessionAvecPlacesLibres_Refuse() {
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.joinWaitlist(sessionId, userIds.get(0)));
+  }
+
+  /**
+   * Test : les positions suivent l'ordre d'arrivée et les places libérées vont à la tête de liste
+   */
+  @Test
+  public void testerPromotion_OrdreFifo() {
+    // Arrange : 2 participants, 4 en attente
+    sessionService.participate(sessionId, userIds.get(0));
+    sessionService.participate(sessionId, userIds.get(1));
+    for (int i = 2; i < 6; i++) {
+      assertThat(sessionService.joinWaitlist(sessionId, userIds.get(i))).isEqualTo(i - 1L);
+    }
+    // Un participant ne peut pas attendre, ni un utilisateur déjà en attente
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.joinWaitlist(sessionId, userIds.get(0)));
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.joinWaitlist(sessionId, userIds.get(2)));
+
+    // Act : le 3e en attente se retire, puis un participant se désiste
+    sessionService.leaveWaitlist(sessionId, userIds.get(4));
+    sessionService.noLongerParticipate(sessionId, userIds.get(0));
+
+    // Assert : la tête de liste prend la place, les suivants avancent
+    assertThat(participants()).containsExactlyInAnyOrder(userIds.get(1), userIds.get(2));
+    assertThat(waitlist()).containsExactly(userIds.get(3), userIds.get(5));
+    assertThat(sessionService.getWaitlistPosition(sessionId, userIds.get(5))).isEqualTo(2L);
+    assertThat(seatsTaken()).isEqualTo(CAPACITY);
+  }
+
+  /**
+   * Test : augmenter la capacité promeut autant d'utilisateurs en attente que de nouvelles places
+   */
+  @Test
+  public void testerPromotion_CapaciteAugmentee() {
+    // Arrange
+    sessionService.participate(sessionId, userIds.get(0));
+    sessionService.participate(sessionId, userIds.get(1));
+    for (int i = 2; i < 6; i++) {
+      sessionService.joinWaitlist(sessionId, userIds.get(i));
+    }
+    entityManager.flush();
+    entityManager.clear();
+    Session session = sessionRepository.findById(sessionId).get();
+
+    // Act : 2 places de plus
+    sessionService.update(sessionId, session.setCapacity(CAPACITY + 2));
+
+    // Assert
+    assertThat(participants()).containsExactlyInAnyOrder(userIds.get(0), userIds.get(1), userIds.get(2), userIds.get(3));
+    assertThat(waitlist()).containsExactly(userIds.get(4), userIds.get(5));
+    assertThat(seatsTaken()).isEqualTo(CAPACITY + 2);
+  }
+
+  /**
+   * Test : un utilisateur en attente qui obtient une place par lui-même quitte la liste d'attente
+   */
+  @Test
+  public void testerReservationDirecte_QuitteLaListeDAttente() {
+    // Arrange : session complète, 2 en attente
+    sessionService.participate(sessionId, userIds.get(0));
+    sessionService.participate(sessionId, userIds.get(1));
+    sessionService.joinWaitlist(sessionId, userIds.get(2));
+    sessionService.joinWaitlist(sessionId, userIds.get(3));
+    // Une place libérée sans promotion, comme lorsqu'un désistement croise l'inscription en liste d'attente
+    sessionRepository.releaseSeat(sessionId, userIds.get(0));
+    sessionRepository.removeParticipant(sessionId, userIds.get(0));
+
+    // Act : le 2e en attente réserve la place
+    sessionService.participate(sessionId, userIds.get(3));
+
+    // Assert
+    assertThat(participants()).containsExactlyInAnyOrder(userIds.get(1), userIds.get(3));
+    assertThat(waitlist()).containsExactly(userIds.get(2));
+    assertThat(seatsTaken()).isEqualTo(CAPACITY);
+  }
+
+  /**
+   * Test : la liste d'attente se parcourt page par page, dans l'ordre d'arrivée
+   */
+  @Test
+  public void testerListeDAttente_PageParPage() {
+    // Arrange : session complète, 4 en attente
+    sessionService.participate(sessionId, userIds.get(0));
+    sessionService.participate(sessionId, userIds.get(1));
+    for (int i = 2; i < 6; i++) {
+      sessionService.joinWaitlist(sessionId, userIds.get(i));
+    }
+
+    // Act
+    Slice<WaitlistEntry> first = sessionService.findWaitlist(sessionId, null, 3);
+    Long lastEntryId = first.getContent().get(first.getContent().size() - 1).getId();
+    Slice<WaitlistEntry> second = sessionService.findWaitlist(sessionId, lastEntryId, 3);
+
+    // Assert
+    assertThat(first.getContent()).extracting(WaitlistEntry::getUserId)
+      .containsExactly(userIds.get(2), userIds.get(3), userIds.get(4));
+    assertThat(first.hasNext()).isTrue();
+    assertThat(second.getContent()).extracting(WaitlistEntry::getUserId).containsExactly(userIds.get(5));
+    assertThat(second.hasNext()).isFalse();
+  }
+
+  private List<Long> waitlist() {
+    return sessionService.findWaitlist(sessionId, null, SessionService.MAX_PAGE_SIZE).getContent().stream()
+      .map(WaitlistEntry::getUserId)
+      .collect(Collectors.toList());
+  }
+
+  private List<Long> participants() {
+    return sessionService.findParticipantIds(Collections.singletonList(sessionId))
+      .getOrDefault(sessionId, new ArrayList<>());
+  }
+
+  private int seatsTaken() {
+    entityManager.flush();
+    entityManager.clear();
+    return sessionRepository.findById(sessionId).get().getSeatsTaken();
+  }
+}
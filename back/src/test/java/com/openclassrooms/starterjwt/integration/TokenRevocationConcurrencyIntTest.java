@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Révocations concurrentes d'un même refresh token : chaque thread valide sa
+ * propre transaction, la ligne est donc supprimée après chaque test
+ */
+@SpringBootTest
+public class TokenRevocationConcurrencyIntTest {
+
+  private static final int THREADS = 16;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Autowired
+  private RevokedTokenRepository revokedTokenRepository;
+
+  private final String jti = UUID.randomUUID().toString();
+
+  @AfterEach
+  public void cleanup() {
+    revokedTokenRepository.deleteById(jti);
+  }
+
+  /**
+   * Test: deux appels /refresh simultanés avec le même token
+   * Résultat attendu: un seul appel révoque le token, les autres sont refusés
+   */
+  @Test
+  public void testerRevocationsSimultanees_UnSeulGagnant() throws Exception {
+    Date expiresAt = new Date(System.currentTimeMillis() + 3600000);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < THREADS; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return tokenRevocationList.revoke(jti, expiresAt);
+        }));
+      }
+      start.countDown();
+
+      int revoked = 0;
+      for (Future<Boolean> result : results) {
+        if (result.get()) {
+          revoked++;
+        }
+      }
+
+      assertThat(revoked).isEqualTo(1);
+      assertThat(revokedTokenRepository.existsById(jti)).isTrue();
+      assertThat(tokenRevocationList.isRevoked(jti)).isTrue();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
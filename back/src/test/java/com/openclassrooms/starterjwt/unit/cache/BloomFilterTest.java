@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.unit.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.cache.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+  @Test
+  void testAddedValuesAreAlwaysFound() {
+    // Arrange
+    BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+
+    // Act
+    for (int i = 0; i < 1000; i++) {
+      bloomFilter.add("value-" + i);
+    }
+
+    // Assert
+    for (int i = 0; i < 1000; i++) {
+      assertThat(bloomFilter.mightContain("value-" + i)).isTrue();
+    }
+  }
+
+  @Test
+  void testFalsePositiveRateStaysNearConfiguredRate() {
+    // Arrange
+    BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+    for (int i = 0; i < 1000; i++) {
+      bloomFilter.add("value-" + i);
+    }
+
+    // Act
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (bloomFilter.mightContain("absent-" + i)) {
+        falsePositives++;
+      }
+    }
+
+    // Assert
+    assertThat(falsePositives).isLessThan(300);
+  }
+}
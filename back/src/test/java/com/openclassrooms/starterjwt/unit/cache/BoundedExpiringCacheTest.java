@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.unit.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.cache.BoundedExpiringCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class BoundedExpiringCacheTest {
+
+  private final long future = System.currentTimeMillis() + 3600000;
+
+  @Test
+  void testGetReturnsCachedValueAndCountsHit() {
+    // Arrange
+    BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10);
+    cache.put("key", "value", future);
+
+    // Act & Assert
+    assertThat(cache.get("key")).isEqualTo("value");
+    assertThat(cache.get("unknown")).isNull();
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testExpiredEntriesAreNotReturned() {
+    // Arrange
+    BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10);
+    cache.put("past", "value", System.currentTimeMillis() - 1);
+
+    // Act & Assert
+    assertThat(cache.get("past")).isNull();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void testSizeIsBounded() {
+    // Arrange
+    BoundedExpiringCache<Integer, Integer> cache = new BoundedExpiringCache<>(100);
+
+    // Act
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i, future);
+    }
+
+    // Assert
+    assertThat(cache.size()).isLessThanOrEqualTo(100);
+    assertThat(cache.getEvictionCount()).isGreaterThanOrEqualTo(900);
+    assertThat(cache.get(999)).isEqualTo(999);
+  }
+
+  @Test
+  void testInvalidate() {
+    // Arrange
+    BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10);
+    cache.put("key", "value", future);
+
+    // Act
+    cache.invalidate("key");
+
+    // Assert
+    assertThat(cache.get("key")).isNull();
+  }
+
+  @Test
+  void testBindToPublishesMetrics() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    BoundedExpiringCache<String, String> cache = new BoundedExpiringCache<>(10);
+    cache.bindTo(registry, "test");
+    cache.put("key", "value", future);
+
+    // Act
+    cache.get("key");
+    cache.get("unknown");
+
+    // Assert
+    assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    assertThat(registry.get("cache.size").tag("cache", "test").gauge().value()).isEqualTo(1.0);
+  }
+}
@@ -7,26 +7,40 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.controllers.AuthController;
+import com.openclassrooms.starterjwt.exception.HashingCapacityExceededException;
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+import com.openclassrooms.starterjwt.exception.UnauthorizedException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.request.TokenRefreshRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.LoginThrottle;
+import com.openclassrooms.starterjwt.security.services.PasswordRehashService;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
-import java.util.Optional;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import java.util.Date;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 //Active l'extension Mockito pour JUnit 5
@@ -49,6 +63,26 @@ public class AuthControllerTest {
  @Mock
  private UserRepository userRepository;
 
+ // Crée un mock de UserDetailsServiceImpl
+ @Mock
+ private UserDetailsServiceImpl userDetailsService;
+
+ // Crée un mock de TokenRevocationList
+ @Mock
+ private TokenRevocationList tokenRevocationList;
+
+ // Crée un mock de PasswordRehashService
+ @Mock
+ private PasswordRehashService passwordRehashService;
+
+ // Crée un mock de LoginThrottle
+ @Mock
+ private LoginThrottle loginThrottle;
+
+ // Crée un mock de RegisteredEmailFilter
+ @Mock
+ private RegisteredEmailFilter registeredEmails;
+
  // Crée une instance de AuthController en injectant les mocks ci-dessus
  @InjectMocks
  private AuthController authController;
@@ -79,13 +113,9 @@ public class AuthControllerTest {
      when(authenticationManager.authenticate(any())).thenReturn(authentication);
      when(authentication.getPrincipal()).thenReturn(userDetails);
      when(jwtUtils.generateJwtToken(authentication)).thenReturn("mockedToken");
-     when(userRepository.findByEmail(userDetails.getUsername()))
-         .thenReturn(Optional.of(
-             new User("papedieng@gmail.com", "Ibra", "Dieng", "pape123", true)
-         ));
 
      // Act - Exécute la méthode à tester
-     ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest);
+     ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest, new MockHttpServletRequest());
 
      // Assert - Vérifications
      assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -105,8 +135,9 @@ public class AuthControllerTest {
      assertThat(jwtResponse.getAdmin()).isEqualTo(userDetails.getAdmin());
      assertThat(jwtResponse.getType()).isEqualTo("Bearer");
 
-     // Vérifie que la méthode du repository a été appelée
-     verify(userRepository, times(1)).findByEmail(userDetails.getUsername());
+     // Vérifie que la connexion ne relit pas l'utilisateur : le seul SELECT est celui de l'AuthenticationManager
+     verifyNoInteractions(userRepository);
+     verify(passwordRehashService).rehashIfNeeded(userDetails, "pape123");
  }
  
  /**
@@ -125,7 +156,7 @@ public class AuthControllerTest {
 
      // Act & Assert
      assertThrows(BadCredentialsException.class, () -> {
-         ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest);
+         ResponseEntity<?> responseEntity = authController.authenticateUser(loginRequest, new MockHttpServletRequest());
          assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
          assertThat(responseEntity.getBody()).isInstanceOf(MessageResponse.class);
          MessageResponse messageResponse = (MessageResponse) responseEntity.getBody();
@@ -134,6 +165,155 @@ public class AuthControllerTest {
      });
  }
  
+ /**
+  * Teste le renouvellement des tokens avec un refresh token valide
+  * Vérifie que l'ancien refresh token est révoqué et que de nouveaux tokens sont émis
+  */
+ @Test
+ void refreshToken_Valide_RetourneNouveauxTokens() {
+     // Arrange
+     TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+     refreshRequest.setRefreshToken("refreshToken");
+     Claims claims = Jwts.claims()
+         .setSubject("papedieng@gmail.com")
+         .setId("jti-1")
+         .setExpiration(new Date(System.currentTimeMillis() + 3600000));
+     UserDetailsImpl userDetails = new UserDetailsImpl(10L, "papedieng@gmail.com", "Ibra", "Dieng", true, "pape123");
+
+     when(jwtUtils.parseJwtToken("refreshToken")).thenReturn(claims);
+     when(jwtUtils.isRefreshToken(claims)).thenReturn(true);
+     when(tokenRevocationList.isRevoked("jti-1")).thenReturn(false);
+     when(userDetailsService.loadUserByUsername("papedieng@gmail.com")).thenReturn(userDetails);
+     when(tokenRevocationList.revoke("jti-1", claims.getExpiration())).thenReturn(true);
+     when(jwtUtils.generateAccessToken(userDetails)).thenReturn("newAccessToken");
+     when(jwtUtils.generateRefreshToken(userDetails)).thenReturn("newRefreshToken");
+
+     // Act
+     ResponseEntity<?> responseEntity = authController.refreshToken(refreshRequest);
+
+     // Assert
+     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+     JwtResponse jwtResponse = (JwtResponse) responseEntity.getBody();
+     assertThat(jwtResponse.getToken()).isEqualTo("newAccessToken");
+     assertThat(jwtResponse.getRefreshToken()).isEqualTo("newRefreshToken");
+     assertThat(jwtResponse.getAdmin()).isTrue();
+     verify(tokenRevocationList).revoke("jti-1", claims.getExpiration());
+ }
+
+ /**
+  * Teste le renouvellement quand un appel concurrent a déjà révoqué le même refresh token
+  * Vérifie que le contrôleur retourne UNAUTHORIZED sans émettre de token
+  */
+ @Test
+ void refreshToken_RevoqueEntreTemps_RetourneUnauthorized() {
+     // Arrange
+     TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+     refreshRequest.setRefreshToken("refreshToken");
+     Claims claims = Jwts.claims()
+         .setSubject("papedieng@gmail.com")
+         .setId("jti-1")
+         .setExpiration(new Date(System.currentTimeMillis() + 3600000));
+     UserDetailsImpl userDetails = new UserDetailsImpl(10L, "papedieng@gmail.com", "Ibra", "Dieng", true, "pape123");
+
+     when(jwtUtils.parseJwtToken("refreshToken")).thenReturn(claims);
+     when(jwtUtils.isRefreshToken(claims)).thenReturn(true);
+     when(tokenRevocationList.isRevoked("jti-1")).thenReturn(false);
+     when(userDetailsService.loadUserByUsername("papedieng@gmail.com")).thenReturn(userDetails);
+     when(tokenRevocationList.revoke("jti-1", claims.getExpiration())).thenReturn(false);
+
+     // Act & Assert
+     UnauthorizedException exception = assertThrows(UnauthorizedException.class,
+         () -> authController.refreshToken(refreshRequest));
+     assertThat(exception.getMessage()).isEqualTo("Refresh token is invalid or revoked");
+     verify(jwtUtils, never()).generateAccessToken(any(UserDetailsImpl.class));
+     verify(jwtUtils, never()).generateRefreshToken(any(UserDetailsImpl.class));
+ }
+
+ /**
+  * Teste le renouvellement pour un compte supprimé depuis la connexion
+  * Vérifie que le refresh token est refusé : les claims périmées ne survivent pas au token d'accès
+  */
+ @Test
+ void refreshToken_CompteSupprime_RetourneUnauthorized() {
+     // Arrange
+     TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+     refreshRequest.setRefreshToken("refreshToken");
+     Claims claims = Jwts.claims().setSubject("papedieng@gmail.com").setId("jti-1");
+
+     when(jwtUtils.parseJwtToken("refreshToken")).thenReturn(claims);
+     when(jwtUtils.isRefreshToken(claims)).thenReturn(true);
+     when(tokenRevocationList.isRevoked("jti-1")).thenReturn(false);
+     when(userDetailsService.loadUserByUsername("papedieng@gmail.com"))
+         .thenThrow(new UsernameNotFoundException("User Not Found with email: papedieng@gmail.com"));
+
+     // Act & Assert
+     assertThrows(UnauthorizedException.class, () -> authController.refreshToken(refreshRequest));
+     verify(jwtUtils, never()).generateAccessToken(any(UserDetailsImpl.class));
+     verify(tokenRevocationList, never()).revoke(anyString(), any());
+ }
+
+ /**
+  * Teste le renouvellement avec un refresh token déjà révoqué
+  * Vérifie que le contrôleur retourne UNAUTHORIZED sans émettre de token
+  */
+ @Test
+ void refreshToken_Revoque_RetourneUnauthorized() {
+     // Arrange
+     TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+     refreshRequest.setRefreshToken("refreshToken");
+     Claims claims = Jwts.claims().setSubject("papedieng@gmail.com").setId("jti-1");
+
+     when(jwtUtils.parseJwtToken("refreshToken")).thenReturn(claims);
+     when(jwtUtils.isRefreshToken(claims)).thenReturn(true);
+     when(tokenRevocationList.isRevoked("jti-1")).thenReturn(true);
+
+     // Act & Assert
+     assertThrows(UnauthorizedException.class, () -> authController.refreshToken(refreshRequest));
+     verify(jwtUtils, never()).generateAccessToken(any(UserDetailsImpl.class));
+     verifyNoInteractions(userDetailsService);
+ }
+
+ /**
+  * Teste la connexion quand la file de hachage des mots de passe est pleine
+  * Vérifie que l'exception remonte jusqu'à ApiExceptionHandler, qui répond SERVICE_UNAVAILABLE
+  */
+ @Test
+ void authentificationUser_HachageSature_RetourneServiceUnavailable() {
+     // Arrange
+     LoginRequest loginRequest = new LoginRequest();
+     loginRequest.setEmail("papedieng@gmail.com");
+     loginRequest.setPassword("pape123");
+     when(authenticationManager.authenticate(any()))
+         .thenThrow(new HashingCapacityExceededException(2));
+
+     // Act & Assert
+     HashingCapacityExceededException exception = assertThrows(HashingCapacityExceededException.class,
+         () -> authController.authenticateUser(loginRequest, new MockHttpServletRequest()));
+     assertThat(exception.getRetryAfterSeconds()).isEqualTo(2);
+     verify(jwtUtils, never()).generateJwtToken(any());
+ }
+
+ /**
+  * Teste la connexion quand le nombre de tentatives est dépassé
+  * Vérifie que le contrôleur rejette la tentative avec Retry-After sans hacher de mot de passe
+  */
+ @Test
+ void authentificationUser_TropDeTentatives_RetourneTooManyRequests() {
+     // Arrange
+     LoginRequest loginRequest = new LoginRequest();
+     loginRequest.setEmail("papedieng@gmail.com");
+     loginRequest.setPassword("pape123");
+     MockHttpServletRequest request = new MockHttpServletRequest();
+     request.setRemoteAddr("10.0.0.1");
+     when(loginThrottle.acquire("papedieng@gmail.com", "10.0.0.1")).thenReturn(30L);
+
+     // Act & Assert
+     TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+         () -> authController.authenticateUser(loginRequest, request));
+     assertThat(exception.getRetryAfterSeconds()).isEqualTo(30);
+     verifyNoInteractions(authenticationManager, userRepository);
+ }
+
  /**
   * Teste l'inscription réussie d'un nouvel utilisateur
   * Vérifie que le contrôleur retourne un message de succès
@@ -148,7 +328,6 @@ public class AuthControllerTest {
      signupRequest.setPassword("pape123");
 
      // Configure les mocks
-     when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
      when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
      when(userRepository.save(any())).thenReturn(
          new User("papedieng@gmail.com", "Ibra", "Dieng", "pape123", false)
@@ -164,8 +343,10 @@ public class AuthControllerTest {
      assertThat(messageResponse.getMessage()).isEqualTo("User registered successfully!");
 
      // Vérifie les appels aux mocks
-     verify(userRepository, times(1)).existsByEmail("papedieng@gmail.com");
+     verify(userRepository, never()).existsByEmail(anyString());
      verify(userRepository, times(1)).save(any());
+     verify(registeredEmails, times(1)).add("papedieng@gmail.com");
+     verify(userDetailsService, times(1)).evict("papedieng@gmail.com");
  }
  
  /**
@@ -181,8 +362,9 @@ public class AuthControllerTest {
      signupRequest.setLastName("Dieng");
      signupRequest.setPassword("pape123");
 
-     // Configure le mock pour retourner true (email existe)
-     when(userRepository.existsByEmail("pape@gmail.com")).thenReturn(true);
+     // Configure le mock pour que la contrainte d'unicité sur l'email soit violée
+     when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
+     when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
 
      // Act
      ResponseEntity<?> responseEntity = authController.registerUser(signupRequest);
@@ -194,7 +376,32 @@ public class AuthControllerTest {
      assertThat(messageResponse.getMessage()).isEqualTo("Error: Email is already taken!");
 
      // Vérifie les appels aux mocks
-     verify(userRepository, times(1)).existsByEmail("pape@gmail.com");
+     verify(userRepository, never()).existsByEmail(anyString());
+     verify(userDetailsService, never()).evict(anyString());
+ }
+ 
+ /**
+  * Teste l'inscription avec un email que le filtre a peut-être déjà vu
+  * Vérifie que le doublon est rejeté avant de hacher le mot de passe
+  */
+ @Test
+ void registerUser_AvecEmailConnuDuFiltre_ReturneBadRequestSansHachage() {
+     // Arrange
+     SignupRequest signupRequest = new SignupRequest();
+     signupRequest.setEmail("pape@gmail.com");
+     signupRequest.setFirstName("Ibra");
+     signupRequest.setLastName("Dieng");
+     signupRequest.setPassword("pape123");
+
+     when(registeredEmails.mightBeRegistered("pape@gmail.com")).thenReturn(true);
+     when(userRepository.existsByEmail("pape@gmail.com")).thenReturn(true);
+
+     // Act
+     ResponseEntity<?> responseEntity = authController.registerUser(signupRequest);
+
+     // Assert
+     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+     verifyNoInteractions(passwordEncoder);
      verify(userRepository, never()).save(any());
  }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.unit.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -9,14 +10,26 @@ import com.openclassrooms.starterjwt.controllers.SessionController;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.request.EnrollmentRequest;
+import com.openclassrooms.starterjwt.payload.response.WaitlistPositionResponse;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
+import com.openclassrooms.starterjwt.services.SessionCursor;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistCursor;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -78,18 +91,45 @@ public class SessionControllerTest {
 	  @Test
 	  void findAll_ReturneSessionDtoList() {
 	    // Arrange
-	    List<Session> sessions = Collections.singletonList(new Session());
-	    when(sessionService.findAll()).thenReturn(sessions);
+	    SessionSummary summary = mock(SessionSummary.class);
+	    when(summary.getId()).thenReturn(1L);
+	    when(sessionService.findPage(null, 50)).thenReturn(new SliceImpl<>(Collections.singletonList(summary)));
+	    when(sessionService.findParticipantIds(Collections.singletonList(1L)))
+	      .thenReturn(Collections.singletonMap(1L, Arrays.asList(2L, 3L)));
 
-	    List<SessionDto> sessionDtos = Collections.singletonList(new SessionDto());
-	    when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+	    SessionDto sessionDto = new SessionDto();
+	    when(sessionMapper.toDto(summary, Arrays.asList(2L, 3L))).thenReturn(sessionDto);
+
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.findAll(null, 50);
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+	    assertThat(responseEntity.getBody()).isEqualTo(Collections.singletonList(sessionDto));
+	    assertThat(responseEntity.getHeaders().containsKey(SessionCursor.NEXT_CURSOR_HEADER)).isFalse();
+	  }
+
+	  // Test pour la méthode findAll quand une page suivante existe
+	  @Test
+	  void findAll_AvecPageSuivante_RetourneCurseur() {
+	    // Arrange
+	    SessionSummary last = mock(SessionSummary.class);
+	    when(last.getId()).thenReturn(7L);
+	    when(last.getDate()).thenReturn(new Date(1700000000000L));
+	    String cursor = SessionCursor.encode(new Date(1600000000000L), 3L);
+	    when(sessionService.findPage(any(SessionCursor.class), eq(1)))
+	      .thenReturn(new SliceImpl<>(Collections.singletonList(last), PageRequest.of(0, 1), true));
+	    when(sessionService.findParticipantIds(Collections.singletonList(7L))).thenReturn(Collections.emptyMap());
+	    when(sessionMapper.toDto(last, Collections.emptyList())).thenReturn(new SessionDto());
 
 	    // Act
-	    ResponseEntity<?> responseEntity = sessionController.findAll();
+	    ResponseEntity<?> responseEntity = sessionController.findAll(cursor, 1);
 
 	    // Assert
 	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
-	    assertThat(responseEntity.getBody()).isEqualTo(sessionDtos);
+	    SessionCursor next = SessionCursor.decode(responseEntity.getHeaders().getFirst(SessionCursor.NEXT_CURSOR_HEADER));
+	    assertThat(next.getId()).isEqualTo(7L);
+	    assertThat(next.getDate()).isEqualTo(new Date(1700000000000L));
 	  }
 
 	  // Test pour la méthode create
@@ -265,4 +305,101 @@ public class SessionControllerTest {
 	      .isEqualTo(HttpStatus.BAD_REQUEST);
 	    verify(sessionService, never()).noLongerParticipate(anyLong(), anyLong());
 	  }
-}
\ No newline at end of file
+
+	  // Test pour la méthode joinWaitlist : la position est renvoyée
+	  @Test
+	  void testeJoinWaitlist_ReturnePosition() {
+	    // Arrange
+	    when(sessionService.joinWaitlist(1L, 2L)).thenReturn(4L);
+
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.joinWaitlist("1", "2");
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+	    assertThat(((WaitlistPositionResponse) responseEntity.getBody()).getPosition()).isEqualTo(4L);
+	  }
+
+	  // Test pour la méthode joinWaitlist avec un ID invalide
+	  @Test
+	  void testeJoinWaitlist_FormatIdInvalid_ReturneBadRequest() {
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.joinWaitlist("invalidId", "2");
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	    verify(sessionService, never()).joinWaitlist(anyLong(), anyLong());
+	  }
+
+	  // Test pour la méthode findWaitlist : les IDs sont renvoyés dans l'ordre d'arrivée
+	  @Test
+	  void testeFindWaitlist_ReturneIdsDansLOrdre() {
+	    // Arrange
+	    when(sessionService.findWaitlist(1L, null, 50)).thenReturn(new SliceImpl<>(Arrays.asList(
+	      new WaitlistEntry(8L, 1L, 5L, null),
+	      new WaitlistEntry(9L, 1L, 3L, null))));
+
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.findWaitlist("1", null, 50);
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+	    assertThat(responseEntity.getBody()).isEqualTo(Arrays.asList(5L, 3L));
+	    assertThat(responseEntity.getHeaders().containsKey(SessionCursor.NEXT_CURSOR_HEADER)).isFalse();
+	  }
+
+	  // Test pour la méthode findWaitlist quand une page suivante existe : le curseur reprend après la dernière entrée
+	  @Test
+	  void testeFindWaitlist_AvecPageSuivante_RetourneCurseur() {
+	    // Arrange
+	    when(sessionService.findWaitlist(1L, 8L, 1)).thenReturn(new SliceImpl<>(
+	      Collections.singletonList(new WaitlistEntry(9L, 1L, 3L, null)), PageRequest.of(0, 1), true));
+
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.findWaitlist("1", WaitlistCursor.encode(8L), 1);
+
+	    // Assert
+	    assertThat(responseEntity.getBody()).isEqualTo(Collections.singletonList(3L));
+	    assertThat(WaitlistCursor.decode(responseEntity.getHeaders().getFirst(SessionCursor.NEXT_CURSOR_HEADER)))
+	      .isEqualTo(9L);
+	  }
+
+	  // Test pour la méthode leaveWaitlist
+	  @Test
+	  void testeLeaveWaitlist_ReturneOk() {
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.leaveWaitlist("1", "2");
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+	    verify(sessionService).leaveWaitlist(1L, 2L);
+	  }
+
+	  // Test pour la méthode enroll : le résultat de chaque ID est renvoyé
+	  @Test
+	  void testeEnroll_ReturneResultatParId() {
+	    // Arrange
+	    EnrollmentRequest request = new EnrollmentRequest();
+	    request.setUserIds(Arrays.asList(2L, 3L));
+	    Map<Long, EnrollmentStatus> results = Collections.singletonMap(2L, EnrollmentStatus.ENROLLED);
+	    when(sessionService.enroll(1L, request.getUserIds())).thenReturn(results);
+
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.enroll("1", request);
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+	    assertThat(responseEntity.getBody()).isEqualTo(results);
+	  }
+
+	  // Test pour la méthode enroll avec un ID invalide
+	  @Test
+	  void testeEnroll_FormatIdInvalid_ReturneBadRequest() {
+	    // Act
+	    ResponseEntity<?> responseEntity = sessionController.enroll("invalidId", new EnrollmentRequest());
+
+	    // Assert
+	    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	    verify(sessionService, never()).enroll(anyLong(), any());
+	  }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.unit.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ErrorResponseWriterTest {
+
+    private final ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testWriteErrorBody() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        errorResponseWriter.write(response, HttpStatus.UNAUTHORIZED, "Bad \"credentials\"\n", "/api/séance");
+
+        // Assert
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(body.get("status").asInt()).isEqualTo(401);
+        assertThat(body.get("error").asText()).isEqualTo("Unauthorized");
+        assertThat(body.get("message").asText()).isEqualTo("Bad \"credentials\"\n");
+        assertThat(body.get("path").asText()).isEqualTo("/api/séance");
+    }
+
+    @Test
+    void testWriteNullMessage() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        errorResponseWriter.write(response, HttpStatus.NOT_FOUND, null, "/api/user/2");
+        errorResponseWriter.write(new MockHttpServletResponse(), HttpStatus.NOT_FOUND, "again", "/api/user/3");
+
+        // Assert
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("status").asInt()).isEqualTo(404);
+        assertThat(body.get("error").asText()).isEqualTo("Not Found");
+        assertThat(body.get("message").isNull()).isTrue();
+    }
+
+    @Test
+    void testWriteEveryStatus() throws Exception {
+        for (HttpStatus status : HttpStatus.values()) {
+            // Arrange
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // Act
+            errorResponseWriter.write(response, status, "message", "/api");
+
+            // Assert
+            JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+            assertThat(body.get("status").asInt()).isEqualTo(status.value());
+            assertThat(body.get("error").asText()).isEqualTo(HttpStatus.valueOf(status.value()).getReasonPhrase());
+        }
+    }
+}
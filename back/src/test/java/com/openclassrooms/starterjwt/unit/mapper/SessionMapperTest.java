@@ -1,20 +1,26 @@
 package com.openclassrooms.starterjwt.unit.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -51,9 +57,10 @@ void tester_Avec_Entity() {
  when(teacherService.findById(anyLong())).thenReturn(teacher);
 
  User user1 = new User();
+ user1.setId(2L);
  User user2 = new User();
- when(userService.findById(2L)).thenReturn(user1);
- when(userService.findById(3L)).thenReturn(user2);
+ user2.setId(3L);
+ when(userService.findAllById(Arrays.asList(2L, 3L))).thenReturn(new HashSet<>(Arrays.asList(user1, user2)));
 
  // Act : appel de la méthode à tester
  Session result = sessionMapper.toEntity(sessionDto);
@@ -61,7 +68,39 @@ void tester_Avec_Entity() {
  // Assert : vérifications
  assertThat(result.getDescription()).isEqualTo(sessionDto.getDescription());
  assertThat(result.getTeacher()).isEqualTo(teacher); // Vérifie que le teacher est bien associé
- assertThat(result.getUsers()).containsExactly(user1, user2); // Vérifie la liste des users
+ assertThat(result.getUsers()).containsExactlyInAnyOrder(user1, user2); // Vérifie l'ensemble des users
+ // Les users sont résolus en une seule fois, jamais un par un
+ verify(userService, never()).findById(anyLong());
+}
+
+// Test avec un teacher inconnu : l'ID est signalé au lieu d'être associé à null
+@Test
+void testerEntity_AvecTeacherInconnu_LeveBadRequest() {
+ // Arrange
+ SessionDto sessionDto = new SessionDto();
+ sessionDto.setTeacher_id(99L);
+ when(teacherService.findById(99L)).thenReturn(null);
+
+ // Act & Assert
+ assertThatThrownBy(() -> sessionMapper.toEntity(sessionDto))
+   .isInstanceOf(BadRequestException.class)
+   .hasMessageContaining("99");
+}
+
+// Test sans participants : aucune requête sur les users
+@Test
+void testerEntity_SansUsers_RetourneEnsembleVide() {
+ // Arrange
+ SessionDto sessionDto = new SessionDto();
+ sessionDto.setUsers(null);
+
+ // Act
+ Session result = sessionMapper.toEntity(sessionDto);
+
+ // Assert
+ assertThat(result.getUsers()).isEmpty();
+ assertThat(result.getTeacher()).isNull();
+ verify(userService, never()).findAllById(anyCollection());
 }
 
 // Test avec un SessionDto null
@@ -93,7 +132,7 @@ void tester_Avec_Dto() {
  user1.setId(1L);
  User user2 = new User();
  user2.setId(2L);
- session.setUsers(Arrays.asList(user1, user2));
+ session.setUsers(new HashSet<>(Arrays.asList(user2, user1)));
 
  // Act
  SessionDto result = sessionMapper.toDto(session);
@@ -101,7 +140,7 @@ void tester_Avec_Dto() {
  // Assert
  assertThat(result.getDescription()).isEqualTo(session.getDescription());
  assertThat(result.getTeacher_id()).isEqualTo(session.getTeacher().getId());
- assertThat(result.getUsers()).containsExactly(1L, 2L); // Vérifie les IDs des users
+ assertThat(result.getUsers()).containsExactly(1L, 2L); // Vérifie les IDs des users, triés
 }
 
 // Test avec une Session null
@@ -199,4 +238,24 @@ void testerListNullSession_A_Dto_RetournNull() {
  // Assert
  assertThat(result).isNull();
 }
-}
\ No newline at end of file
+
+// Test de conversion d'une ligne de liste (projection) vers un SessionDto
+@Test
+void tester_Avec_Summary() {
+ // Arrange
+ SessionSummary summary = mock(SessionSummary.class);
+ when(summary.getId()).thenReturn(1L);
+ when(summary.getName()).thenReturn("Yoga");
+ when(summary.getTeacherId()).thenReturn(4L);
+
+ // Act
+ SessionDto result = sessionMapper.toDto(summary, Arrays.asList(2L, 3L));
+
+ // Assert
+ assertThat(result.getId()).isEqualTo(1L);
+ assertThat(result.getName()).isEqualTo("Yoga");
+ assertThat(result.getTeacher_id()).isEqualTo(4L);
+ assertThat(result.getUsers()).containsExactly(2L, 3L);
+ verify(userService, never()).findById(anyLong());
+}
+}
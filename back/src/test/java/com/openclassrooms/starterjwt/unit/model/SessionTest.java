@@ -10,9 +10,8 @@ import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Set;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
@@ -36,7 +35,7 @@ public class SessionTest {
 
 		  private Teacher testTeacher;
 		  private User testUser;
-		  private List<User> testUserList;
+		  private Set<User> testUserList;
 		  private Session testSession;
 		  
 		  @BeforeEach
@@ -58,7 +57,7 @@ public class SessionTest {
 		    testUser.setCreatedAt(fixedDateTime);
 		    testUser.setUpdatedAt(fixedDateTime);
 
-		    testUserList = new ArrayList<User>();
+		    testUserList = new HashSet<User>();
 		    testUserList.add(testUser);
 
 		    testSession =
@@ -124,7 +123,7 @@ public class SessionTest {
 		      fixedDate +
 		      ", description=Session 1 description, teacher=" +
 		      testTeacher +
-		      ", users=" +
+		      ", capacity=null, seatsTaken=0, users=" +
 		      testUserList +
 		      ", createdAt=" +
 		      fixedDateTime +
@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+public class AuthFailureLoggerTest {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger(AuthFailureLogger.class);
+
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private SimpleMeterRegistry registry;
+
+  private AuthFailureLogger authFailureLogger;
+
+  @BeforeEach
+  public void setup() {
+    appender.start();
+    logger.addAppender(appender);
+    registry = new SimpleMeterRegistry();
+    authFailureLogger = new AuthFailureLogger(registry, 2);
+  }
+
+  @AfterEach
+  public void detachAppender() {
+    logger.detachAppender(appender);
+    appender.stop();
+  }
+
+  @Test
+  void testEveryFailureIsCountedPerReason() {
+    // Act
+    for (int i = 0; i < 100; i++) {
+      authFailureLogger.reject(Reason.EXPIRED, "JWT expired");
+    }
+    authFailureLogger.reject(Reason.BAD_SIGNATURE, "bad signature");
+    authFailureLogger.endInterval();
+    authFailureLogger.reject(Reason.MALFORMED, "malformed");
+
+    // Assert
+    assertThat(registry.get("auth.failures").tag("reason", "expired").counter().count()).isEqualTo(100.0);
+    assertThat(registry.get("auth.failures").tag("reason", "bad_signature").counter().count()).isEqualTo(1.0);
+    assertThat(registry.get("auth.failures").tag("reason", "malformed").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void testOnlySampleIsLoggedThenOneSummaryLine() {
+    // Act
+    for (int i = 0; i < 100; i++) {
+      authFailureLogger.reject(Reason.EXPIRED, "JWT expired");
+    }
+    authFailureLogger.reject(Reason.BAD_SIGNATURE, "bad signature");
+    authFailureLogger.endInterval();
+
+    // Assert: the 2 sampled lines, then the summary of the 98 + 1 suppressed ones
+    assertThat(messages()).containsExactly(
+      "Authentication failure (expired): JWT expired",
+      "Authentication failure (expired): JWT expired",
+      "Suppressed 99 authentication failure log lines in the last interval (expired=98, bad_signature=1)");
+  }
+
+  @Test
+  void testSamplingLimitIsResetEachInterval() {
+    // Arrange: first interval fills its sample
+    for (int i = 0; i < 3; i++) {
+      authFailureLogger.reject(Reason.EXPIRED, "JWT expired");
+    }
+    authFailureLogger.endInterval();
+    appender.list.clear();
+
+    // Act
+    authFailureLogger.reject(Reason.MALFORMED, "malformed");
+    authFailureLogger.endInterval();
+
+    // Assert: logged again, and nothing left to summarize
+    assertThat(messages()).containsExactly("Authentication failure (malformed): malformed");
+  }
+
+  @Test
+  void testNoSummaryWhenNothingWasSuppressed() {
+    // Act
+    authFailureLogger.reject(Reason.EXPIRED, "JWT expired", new IllegalStateException("cause"));
+    authFailureLogger.endInterval();
+
+    // Assert
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.get(0).getThrowableProxy().getMessage()).isEqualTo("cause");
+  }
+
+  private List<String> messages() {
+    return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,192 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger;
+import com.openclassrooms.starterjwt.security.jwt.AuthFilterMetrics;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthTokenFilterTest {
+
+  @Mock
+  private JwtUtils jwtUtils;
+
+  @Mock
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @Mock
+  private AuthFailureLogger authFailureLogger;
+
+  @Mock
+  private TokenRevocationList tokenRevocationList;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private AuthTokenFilter authTokenFilter;
+
+  @BeforeEach
+  public void setup() {
+    authTokenFilter = new AuthTokenFilter(WebSecurityConfig.unfilteredRoutes());
+    ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+    ReflectionTestUtils.setField(authTokenFilter, "verifiedTokenCache", verifiedTokenCache);
+    ReflectionTestUtils.setField(authTokenFilter, "authFailureLogger", authFailureLogger);
+    ReflectionTestUtils.setField(authTokenFilter, "tokenRevocationList", tokenRevocationList);
+    ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+    meterRegistry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(authTokenFilter, "authFilterMetrics", new AuthFilterMetrics(meterRegistry));
+  }
+
+  @AfterEach
+  public void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testPublicRouteIsNotFiltered() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = bearerRequest("POST", "/api/auth/login");
+    MockFilterChain filterChain = new MockFilterChain();
+
+    // Act
+    authTokenFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+    // Assert
+    assertThat(filterChain.getRequest()).isSameAs(request);
+    verifyNoInteractions(verifiedTokenCache, jwtUtils);
+  }
+
+  @Test
+  void testPreflightIsNotFiltered() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = bearerRequest("OPTIONS", "/api/session");
+    MockFilterChain filterChain = new MockFilterChain();
+
+    // Act
+    authTokenFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+    // Assert
+    assertThat(filterChain.getRequest()).isSameAs(request);
+    verifyNoInteractions(verifiedTokenCache, jwtUtils);
+  }
+
+  @Test
+  void testProtectedRouteIsFiltered() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = bearerRequest("GET", "/api/session");
+    MockFilterChain filterChain = new MockFilterChain();
+
+    // Act
+    authTokenFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+    // Assert
+    assertThat(filterChain.getRequest()).isSameAs(request);
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    verify(verifiedTokenCache).get("token");
+    verify(jwtUtils).parseJwtToken("token");
+    assertThat(meterRegistry.get("auth.filter.outcome").tag("outcome", "invalid").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("auth.filter.stage").tag("stage", "verify").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("auth.filter.stage").tag("stage", "principal").timer().count()).isZero();
+  }
+
+  @Test
+  void testRequestWithoutTokenIsAnonymous() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+    request.setServletPath("/api/session");
+
+    // Act
+    authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    assertThat(meterRegistry.get("auth.filter.outcome").tag("outcome", "anonymous").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("auth.filter.stage").tag("stage", "header").timer().count()).isEqualTo(1);
+    verifyNoInteractions(verifiedTokenCache, jwtUtils);
+  }
+
+  @Test
+  void testCacheHitSkipsSignatureVerification() throws Exception {
+    // Arrange
+    Claims claims = Jwts.claims().setSubject("yoga@studio.com").setId("jti-1");
+    UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("yoga@studio.com").admin(false).build();
+    when(verifiedTokenCache.get("token")).thenReturn(claims);
+    when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+
+    // Act
+    authTokenFilter.doFilter(bearerRequest("GET", "/api/session"), new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(userDetails);
+    verify(jwtUtils, never()).parseJwtToken(anyString());
+    verify(verifiedTokenCache, never()).put(anyString(), any(Claims.class));
+    assertThat(meterRegistry.get("auth.filter.outcome").tag("outcome", "authenticated").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void testPrincipalFromClaimsDoesNotLoadUser() throws Exception {
+    // Arrange
+    Claims claims = Jwts.claims().setSubject("yoga@studio.com").setId("jti-1");
+    UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("yoga@studio.com").admin(true).build();
+    when(jwtUtils.parseJwtToken("token")).thenReturn(claims);
+    when(jwtUtils.getUserDetailsFromClaims(claims)).thenReturn(userDetails);
+
+    // Act
+    authTokenFilter.doFilter(bearerRequest("GET", "/api/session"), new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(userDetails);
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  void testTokenWithoutIdentityClaimsLoadsUser() throws Exception {
+    // Arrange
+    Claims claims = Jwts.claims().setSubject("yoga@studio.com").setId("jti-1");
+    UserDetailsImpl userDetails = UserDetailsImpl.builder().id(1L).username("yoga@studio.com").admin(false).build();
+    when(jwtUtils.parseJwtToken("token")).thenReturn(claims);
+    when(userDetailsService.loadUserByUsername("yoga@studio.com")).thenReturn(userDetails);
+
+    // Act
+    authTokenFilter.doFilter(bearerRequest("GET", "/api/session"), new MockHttpServletResponse(), new MockFilterChain());
+
+    // Assert
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(userDetails);
+    verify(userDetailsService).loadUserByUsername("yoga@studio.com");
+  }
+
+  private MockHttpServletRequest bearerRequest(String method, String path) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    request.setServletPath(path);
+    request.addHeader("Authorization", "Bearer token");
+    return request;
+  }
+}
@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.security.services.BCryptStrengthCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class BCryptStrengthCalibratorTest {
+
+  @Test
+  void testCalibrationStaysWithinBounds() {
+    // Act & Assert
+    assertThat(BCryptStrengthCalibrator.calibrate(1, 4, 6)).isEqualTo(4);
+    assertThat(BCryptStrengthCalibrator.calibrate(60000, 4, 6)).isEqualTo(6);
+  }
+
+  @Test
+  void testDisabledCalibrationUsesMinimumStrength() {
+    // Act
+    BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(0, 5, 12);
+
+    // Assert
+    assertThat(calibrator.getStrength()).isEqualTo(5);
+  }
+
+  @Test
+  void testHasDifferentStrength() {
+    // Arrange
+    BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(0, 5, 12);
+
+    // Act & Assert
+    assertThat(calibrator.hasDifferentStrength(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+    assertThat(calibrator.hasDifferentStrength(new BCryptPasswordEncoder(5).encode("password"))).isFalse();
+    assertThat(calibrator.hasDifferentStrength("not a bcrypt hash")).isFalse();
+    assertThat(calibrator.hasDifferentStrength(null)).isFalse();
+  }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.openclassrooms.starterjwt.exception.HashingCapacityExceededException;
+import com.openclassrooms.starterjwt.security.services.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class BoundedPasswordEncoderTest {
+
+  @Test
+  void testEncodeAndMatchesDelegate() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 2, 1, registry)) {
+      // Act
+      String encoded = encoder.encode("password");
+
+      // Assert
+      assertThat(encoder.matches("password", encoded)).isTrue();
+      assertThat(encoder.matches("wrong", encoded)).isFalse();
+      assertThat(registry.get("auth.hashing.latency").timer().count()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  void testRejectsWhenQueueIsFull() throws Exception {
+    // Arrange
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    PasswordEncoder blocking = new PasswordEncoder() {
+      @Override
+      public String encode(CharSequence rawPassword) {
+        started.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return rawPassword.toString();
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return rawPassword.toString().equals(encodedPassword);
+      }
+    };
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 5, registry)) {
+      // One hash running and one queued saturate the pool
+      callers.submit(() -> encoder.encode("first"));
+      assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+      callers.submit(() -> encoder.encode("second"));
+      while (registry.get("auth.hashing.queue.depth").gauge().value() < 1) {
+        Thread.sleep(5);
+      }
+
+      // Act & Assert
+      HashingCapacityExceededException exception =
+        assertThrows(HashingCapacityExceededException.class, () -> encoder.encode("third"));
+      assertThat(exception.getRetryAfterSeconds()).isEqualTo(5);
+      assertThat(registry.get("auth.hashing.rejected").counter().count()).isEqualTo(1.0);
+    } finally {
+      release.countDown();
+      callers.shutdown();
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package com.openclassrooms.starterjwt.unit.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureLogger.Reason;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,19 +19,30 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.util.Date;
+
 @ExtendWith(MockitoExtension.class)
 public class JwtUtilsTest {
 
 	 @Mock
 	  private Authentication authentication;
 
+	  @Mock
+	  private AuthFailureLogger authFailureLogger;
+
 	  @InjectMocks
 	  private JwtUtils jwtUtils;
 
 	  @BeforeEach
 	  public void setup() {
 	    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
+	    ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", 86400000L);
 	    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecretKey");
+	    jwtUtils.init();
 	  }
 
 	  @Test
@@ -54,6 +70,68 @@ public class JwtUtilsTest {
 	    assertThat(username).isEqualTo("test@test.com");
 	  }
 
+	  @Test
+	  void testGetUserDetailsFromClaims() {
+	    // Arrange
+	    String token = generateTestToken();
+
+	    // Act
+	    UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token));
+
+	    // Assert
+	    assertThat(userDetails.getId()).isEqualTo(1L);
+	    assertThat(userDetails.getUsername()).isEqualTo("test@test.com");
+	    assertThat(userDetails.getFirstName()).isEqualTo("firstname");
+	    assertThat(userDetails.getLastName()).isEqualTo("lastname");
+	    assertThat(userDetails.getAdmin()).isFalse();
+	    assertThat(userDetails.getPassword()).isNull();
+	  }
+
+	  @Test
+	  void testGetUserDetailsFromClaimsWithoutIdentity() {
+	    // Arrange
+	    String token = Jwts.builder()
+	      .setSubject("test@test.com")
+	      .setIssuedAt(new Date())
+	      .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+	      .signWith(SignatureAlgorithm.HS512, "testSecretKey")
+	      .compact();
+
+	    // Act & Assert
+	    assertThat(jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token))).isNull();
+	  }
+
+	  @Test
+	  void testParseJwtToken() {
+	    // Arrange
+	    String validToken = generateTestToken();
+
+	    // Act
+	    Claims claims = jwtUtils.parseJwtToken(validToken);
+
+	    // Assert
+	    assertThat(claims.getSubject()).isEqualTo("test@test.com");
+	    assertThat(jwtUtils.getUserDetailsFromClaims(claims).getId()).isEqualTo(1L);
+	    assertThat(jwtUtils.parseJwtToken("invalidToken")).isNull();
+	  }
+
+	  @Test
+	  void testGenerateRefreshToken() {
+	    // Arrange
+	    UserDetailsImpl userDetails = createUserDetails();
+
+	    // Act
+	    Claims refreshClaims = jwtUtils.parseJwtToken(jwtUtils.generateRefreshToken(userDetails));
+	    Claims accessClaims = jwtUtils.parseJwtToken(jwtUtils.generateAccessToken(userDetails));
+
+	    // Assert
+	    assertThat(jwtUtils.isRefreshToken(refreshClaims)).isTrue();
+	    assertThat(refreshClaims.getSubject()).isEqualTo("test@test.com");
+	    assertThat(refreshClaims.getId()).isNotBlank();
+	    assertThat(jwtUtils.isRefreshToken(accessClaims)).isFalse();
+	    assertThat(accessClaims.getId()).isNotEqualTo(refreshClaims.getId());
+	  }
+
 	  @Test
 	  void testValidateJwtToken() {
 	    // Arrange
@@ -90,6 +168,7 @@ public class JwtUtilsTest {
 
 	    // Act & Assert
 	    assertThat(jwtUtils.validateJwtToken(expiredToken)).isFalse();
+	    verify(authFailureLogger).reject(eq(Reason.EXPIRED), anyString());
 	  }
 
 	  @Test
@@ -0,0 +1,117 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.security.services.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoginThrottleTest {
+
+  private static final long WINDOW = 60000;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private LoginThrottle loginThrottle;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    loginThrottle = new LoginThrottle(meterRegistry, 1024, 3, 5, WINDOW);
+  }
+
+  @Test
+  void testEmailIsThrottledAfterLimit() {
+    // Arrange
+    long now = 10 * WINDOW;
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      assertThat(loginThrottle.acquire("yoga@studio.com", "10.0.0." + i, now)).isZero();
+    }
+    long retryAfter = loginThrottle.acquire("YOGA@studio.com", "10.0.0.9", now + 15000);
+
+    // Assert
+    // The 3 attempts stay in the estimate until a third of the next window has passed: 45s + 20s
+    assertThat(retryAfter).isEqualTo(65);
+    assertThat(loginThrottle.acquire("yoga@studio.com", "10.0.0.9", now + 15000 + 64000)).isPositive();
+    assertThat(loginThrottle.acquire("yoga@studio.com", "10.0.0.9", now + 15000 + 65000)).isZero();
+    assertThat(loginThrottle.acquire("other@studio.com", "10.0.0.9", now)).isZero();
+    assertThat(meterRegistry.get("auth.login.throttled").tag("key", "email").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void testClientIsThrottledAcrossEmails() {
+    // Arrange
+    long now = 10 * WINDOW;
+
+    // Act
+    for (int i = 0; i < 5; i++) {
+      assertThat(loginThrottle.acquire("user" + i + "@studio.com", "10.0.0.1", now)).isZero();
+    }
+
+    // Assert
+    assertThat(loginThrottle.acquire("user9@studio.com", "10.0.0.1", now)).isPositive();
+    assertThat(loginThrottle.acquire("user9@studio.com", "10.0.0.2", now)).isZero();
+  }
+
+  @Test
+  void testPreviousWindowFadesOut() {
+    // Arrange
+    long start = 10 * WINDOW;
+    for (int i = 0; i < 3; i++) {
+      loginThrottle.acquire("yoga@studio.com", null, start);
+    }
+
+    // Act & Assert
+    // A quarter into the next window, 75% of the previous 3 attempts still count: 2.25 + 1 > 3
+    long throttledAt = start + WINDOW + WINDOW / 4;
+    long retryAfter = loginThrottle.acquire("yoga@studio.com", null, throttledAt);
+    assertThat(retryAfter).isEqualTo(5);
+    // Retrying while throttled does not extend the wait
+    for (int i = 0; i < 10; i++) {
+      assertThat(loginThrottle.acquire("yoga@studio.com", null, throttledAt + i * 400)).isPositive();
+    }
+    // Once told Retry-After has passed, 2/3 of the previous attempts remain: 2 + 1 <= 3
+    assertThat(loginThrottle.acquire("yoga@studio.com", null, throttledAt + retryAfter * 1000)).isZero();
+  }
+
+  @Test
+  void testThrottledClientDoesNotFillEmailStripes() {
+    // Arrange: the client uses up its 5 attempts
+    long now = 10 * WINDOW;
+    for (int i = 0; i < 5; i++) {
+      assertThat(loginThrottle.acquire("user" + i + "@studio.com", "10.0.0.1", now)).isZero();
+    }
+
+    // Act: it keeps trying the same victim
+    for (int i = 0; i < 100; i++) {
+      assertThat(loginThrottle.acquire("victim@studio.com", "10.0.0.1", now)).isPositive();
+    }
+
+    // Assert: none of these attempts counted against the victim's email
+    assertThat(loginThrottle.acquire("victim@studio.com", "10.0.0.2", now)).isZero();
+    assertThat(meterRegistry.get("auth.login.throttled").tag("key", "client").counter().count()).isEqualTo(100);
+    assertThat(meterRegistry.get("auth.login.throttled").tag("key", "email").counter().count()).isZero();
+  }
+
+  @Test
+  void testEmailThrottledAttemptIsNotCountedForClient() {
+    // Arrange: the email uses up its 3 attempts from one client
+    long now = 10 * WINDOW;
+    for (int i = 0; i < 3; i++) {
+      assertThat(loginThrottle.acquire("yoga@studio.com", "10.0.0.1", now)).isZero();
+    }
+
+    // Act: rejected attempts for that email from the same client
+    for (int i = 0; i < 10; i++) {
+      assertThat(loginThrottle.acquire("yoga@studio.com", "10.0.0.1", now)).isPositive();
+    }
+
+    // Assert: the client still has its 2 remaining attempts
+    assertThat(loginThrottle.acquire("other1@studio.com", "10.0.0.1", now)).isZero();
+    assertThat(loginThrottle.acquire("other2@studio.com", "10.0.0.1", now)).isZero();
+    assertThat(loginThrottle.acquire("other3@studio.com", "10.0.0.1", now)).isPositive();
+  }
+}
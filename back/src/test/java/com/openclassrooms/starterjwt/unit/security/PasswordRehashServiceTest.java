@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.BCryptStrengthCalibrator;
+import com.openclassrooms.starterjwt.security.services.PasswordRehashService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordRehashServiceTest {
+
+  @Mock
+  private PasswordEncoder passwordEncoder;
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
+  @Mock
+  private BCryptStrengthCalibrator strengthCalibrator;
+
+  private PasswordRehashService passwordRehashService;
+
+  private UserDetailsImpl user;
+
+  @BeforeEach
+  public void setup() {
+    passwordRehashService = new PasswordRehashService(passwordEncoder, userRepository, userDetailsService, strengthCalibrator);
+    user = new UserDetailsImpl(1L, "test@test.com", "firstname", "lastname", false, "$2a$08$oldhash");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    passwordRehashService.shutdown();
+  }
+
+  @Test
+  void testRehashesPasswordWithDifferentStrength() {
+    // Arrange
+    when(strengthCalibrator.hasDifferentStrength("$2a$08$oldhash")).thenReturn(true);
+    when(passwordEncoder.encode("password")).thenReturn("$2a$12$newhash");
+    when(userRepository.updatePassword(1L, "$2a$08$oldhash", "$2a$12$newhash")).thenReturn(1);
+
+    // Act
+    passwordRehashService.rehashIfNeeded(user, "password");
+
+    // Assert
+    verify(userRepository, timeout(5000)).updatePassword(1L, "$2a$08$oldhash", "$2a$12$newhash");
+    verify(userDetailsService, timeout(5000)).evict("test@test.com");
+  }
+
+  @Test
+  void testKeepsPasswordWithCalibratedStrength() {
+    // Arrange
+    when(strengthCalibrator.hasDifferentStrength("$2a$08$oldhash")).thenReturn(false);
+
+    // Act
+    passwordRehashService.rehashIfNeeded(user, "password");
+
+    // Assert
+    verify(passwordEncoder, never()).encode(anyString());
+    verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+  }
+}
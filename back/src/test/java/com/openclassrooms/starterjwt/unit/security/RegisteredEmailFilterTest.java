@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RegisteredEmailFilterTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private RegisteredEmailFilter registeredEmailFilter;
+
+  @BeforeEach
+  public void setup() {
+    registeredEmailFilter = new RegisteredEmailFilter(userRepository, 100);
+  }
+
+  @Test
+  void testEveryEmailMightBeRegisteredBeforeFirstBuild() {
+    // Act
+    registeredEmailFilter.add("new@studio.com");
+
+    // Assert
+    assertThat(registeredEmailFilter.mightBeRegistered("yoga@studio.com")).isTrue();
+    assertThat(registeredEmailFilter.mightBeRegistered(null)).isFalse();
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void testRebuildLoadsRegisteredEmails() {
+    // Arrange
+    when(userRepository.findAllEmails()).thenReturn(Arrays.asList("Yoga@Studio.com", "pilates@studio.com"));
+
+    // Act
+    registeredEmailFilter.rebuild();
+
+    // Assert
+    assertThat(registeredEmailFilter.mightBeRegistered("yoga@studio.com")).isTrue();
+    assertThat(registeredEmailFilter.mightBeRegistered("PILATES@studio.com")).isTrue();
+    assertThat(registeredEmailFilter.mightBeRegistered("unknown@studio.com")).isFalse();
+  }
+
+  @Test
+  void testAddAfterRegister() {
+    // Arrange
+    when(userRepository.findAllEmails()).thenReturn(Collections.emptyList());
+    registeredEmailFilter.rebuild();
+    assertThat(registeredEmailFilter.mightBeRegistered("new@studio.com")).isFalse();
+
+    // Act
+    registeredEmailFilter.add("New@Studio.com");
+
+    // Assert
+    assertThat(registeredEmailFilter.mightBeRegistered("new@studio.com")).isTrue();
+  }
+
+  @Test
+  void testRebuildPicksUpAccountsCreatedElsewhereAndForgetsDeletedOnes() {
+    // Arrange: the first build knows only the account about to be deleted
+    when(userRepository.findAllEmails()).thenReturn(Collections.singletonList("deleted@studio.com"));
+    registeredEmailFilter.rebuild();
+    assertThat(registeredEmailFilter.mightBeRegistered("elsewhere@studio.com")).isFalse();
+
+    // Act: meanwhile another instance created an account and this one was deleted
+    when(userRepository.findAllEmails()).thenReturn(Collections.singletonList("elsewhere@studio.com"));
+    registeredEmailFilter.rebuild();
+
+    // Assert
+    assertThat(registeredEmailFilter.mightBeRegistered("elsewhere@studio.com")).isTrue();
+    assertThat(registeredEmailFilter.mightBeRegistered("deleted@studio.com")).isFalse();
+  }
+}
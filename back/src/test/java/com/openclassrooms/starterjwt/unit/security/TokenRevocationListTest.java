@@ -0,0 +1,96 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import java.util.Arrays;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+  @Mock
+  private RevokedTokenRepository revokedTokenRepository;
+
+  private TokenRevocationList tokenRevocationList;
+
+  private final Date expiresAt = new Date(System.currentTimeMillis() + 3600000);
+
+  @BeforeEach
+  public void setup() {
+    tokenRevocationList = new TokenRevocationList(revokedTokenRepository, 100);
+  }
+
+  @Test
+  void testRevokePersistsAndIsVisibleImmediately() {
+    // Arrange
+    when(revokedTokenRepository.insertIfAbsent("jti-1", expiresAt)).thenReturn(1);
+
+    // Act
+    boolean revoked = tokenRevocationList.revoke("jti-1", expiresAt);
+
+    // Assert
+    assertThat(revoked).isTrue();
+    assertThat(tokenRevocationList.isRevoked("jti-1")).isTrue();
+    assertThat(tokenRevocationList.isRevoked("jti-2")).isFalse();
+    assertThat(tokenRevocationList.isRevoked(null)).isFalse();
+    verify(revokedTokenRepository, times(1)).insertIfAbsent("jti-1", expiresAt);
+  }
+
+  @Test
+  void testRevokingTwiceOnlyPersistsOnce() {
+    // Arrange
+    when(revokedTokenRepository.insertIfAbsent("jti-1", expiresAt)).thenReturn(1);
+
+    // Act
+    boolean first = tokenRevocationList.revoke("jti-1", expiresAt);
+    boolean second = tokenRevocationList.revoke("jti-1", expiresAt);
+
+    // Assert
+    assertThat(first).isTrue();
+    assertThat(second).isFalse();
+    verify(revokedTokenRepository, times(1)).insertIfAbsent("jti-1", expiresAt);
+  }
+
+  @Test
+  void testRevokeLosingTheInsertReportsAlreadyRevoked() {
+    // Arrange: another instance inserted the row first
+    when(revokedTokenRepository.insertIfAbsent("jti-1", expiresAt)).thenReturn(0);
+
+    // Act
+    boolean revoked = tokenRevocationList.revoke("jti-1", expiresAt);
+
+    // Assert
+    assertThat(revoked).isFalse();
+    assertThat(tokenRevocationList.isRevoked("jti-1")).isTrue();
+  }
+
+  @Test
+  void testRebuildLoadsRevocationTable() {
+    // Arrange
+    when(revokedTokenRepository.findByExpiresAtAfter(any(Date.class)))
+      .thenReturn(Arrays.asList(new RevokedToken("jti-1", expiresAt), new RevokedToken("jti-2", expiresAt)));
+
+    // Act
+    tokenRevocationList.rebuild();
+
+    // Assert
+    assertThat(tokenRevocationList.isRevoked("jti-1")).isTrue();
+    assertThat(tokenRevocationList.isRevoked("jti-2")).isTrue();
+    assertThat(tokenRevocationList.isRevoked("jti-3")).isFalse();
+    verify(revokedTokenRepository).deleteExpired(any(Date.class));
+    verify(revokedTokenRepository, never()).insertIfAbsent(any(), any());
+  }
+}
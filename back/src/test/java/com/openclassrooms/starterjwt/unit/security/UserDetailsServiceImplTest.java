@@ -0,0 +1,102 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDetailsServiceImplTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private RegisteredEmailFilter registeredEmails;
+
+  private UserDetailsServiceImpl userDetailsService;
+
+  private User user;
+
+  @BeforeEach
+  public void setup() {
+    // Not built yet: every email may be registered
+    registeredEmails = new RegisteredEmailFilter(userRepository, 100);
+    userDetailsService = new UserDetailsServiceImpl(userRepository, registeredEmails, new SimpleMeterRegistry(), 100, 60000L);
+
+    user = new User("test@test.com", "lastname", "firstname", "password", true);
+    user.setId(1L);
+  }
+
+  @Test
+  void testLoadUserByUsernameIsCached() {
+    // Arrange
+    when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+
+    // Act
+    UserDetailsImpl first = (UserDetailsImpl) userDetailsService.loadUserByUsername("test@test.com");
+    UserDetailsImpl second = (UserDetailsImpl) userDetailsService.loadUserByUsername("TEST@test.com");
+
+    // Assert
+    assertThat(first.getId()).isEqualTo(1L);
+    assertThat(first.getAdmin()).isTrue();
+    assertThat(second).isSameAs(first);
+    verify(userRepository, times(1)).findByEmail("test@test.com");
+  }
+
+  @Test
+  void testEvictReloadsUser() {
+    // Arrange
+    when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+    userDetailsService.loadUserByUsername("test@test.com");
+
+    // Act
+    userDetailsService.evict("test@test.com");
+    userDetailsService.loadUserByUsername("test@test.com");
+
+    // Assert
+    verify(userRepository, times(2)).findByEmail("test@test.com");
+  }
+
+  @Test
+  void testUnknownUserIsNotCached() {
+    // Arrange
+    when(userRepository.findByEmail("unknown@test.com")).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@test.com"));
+    assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@test.com"));
+    verify(userRepository, times(2)).findByEmail("unknown@test.com");
+  }
+
+  @Test
+  void testEmailMissingFromFilterIsLoadedAndLearned() {
+    // Arrange: account inserted after the last rebuild, e.g. by another instance
+    when(userRepository.findAllEmails()).thenReturn(Collections.emptyList());
+    when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+    registeredEmails.rebuild();
+
+    // Act
+    UserDetails userDetails = userDetailsService.loadUserByUsername("test@test.com");
+
+    // Assert
+    assertThat(userDetails.getUsername()).isEqualTo("test@test.com");
+    assertThat(registeredEmails.mightBeRegistered("test@test.com")).isTrue();
+  }
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VerifiedTokenCacheTest {
+
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @BeforeEach
+  public void setup() {
+    verifiedTokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+  }
+
+  @Test
+  void testCachedClaimsAreReturnedForSameToken() {
+    // Arrange
+    Claims claims = Jwts.claims().setSubject("yoga@studio.com")
+      .setExpiration(new Date(System.currentTimeMillis() + 3600000));
+
+    // Act
+    verifiedTokenCache.put("header.payload.signature", claims);
+
+    // Assert
+    assertThat(verifiedTokenCache.get("header.payload.signature")).isSameAs(claims);
+    assertThat(verifiedTokenCache.get("header.payload.other")).isNull();
+  }
+
+  @Test
+  void testEntryExpiresAtTokenExpiration() throws Exception {
+    // Arrange: exp is stored in whole seconds, hence the margin
+    Claims claims = Jwts.claims().setSubject("yoga@studio.com")
+      .setExpiration(new Date(System.currentTimeMillis() + 2000));
+    verifiedTokenCache.put("token", claims);
+    assertThat(verifiedTokenCache.get("token")).isSameAs(claims);
+
+    // Act
+    Thread.sleep(claims.getExpiration().getTime() + 50 - System.currentTimeMillis());
+
+    // Assert
+    assertThat(verifiedTokenCache.get("token")).isNull();
+  }
+
+  @Test
+  void testTokenWithoutExpirationIsNotCached() {
+    // Act
+    verifiedTokenCache.put("token", Jwts.claims().setSubject("yoga@studio.com"));
+
+    // Assert
+    assertThat(verifiedTokenCache.get("token")).isNull();
+  }
+}
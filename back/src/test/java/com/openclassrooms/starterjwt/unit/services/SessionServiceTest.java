@@ -2,29 +2,48 @@ package com.openclassrooms.starterjwt.unit.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
+import com.openclassrooms.starterjwt.services.SessionCursor;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistCursor;
 
 @SpringBootTest
 public class SessionServiceTest {
@@ -38,6 +57,9 @@ public class SessionServiceTest {
 	  @Mock
 	  private UserRepository userRepository;
 
+	  @Mock
+	  private WaitlistRepository waitlistRepository;
+
 	  private Long testSessionId = 1L;
 	  private Long testUserId = 1L;
 	  private LocalDateTime fixedDateTime = LocalDateTime.of(2025, 1, 1, 1, 1, 1);
@@ -45,9 +67,8 @@ public class SessionServiceTest {
 
 	  private Teacher testTeacher;
 	  private User testUser;
-	  private List<User> testUserList;
+	  private Set<User> testUserList;
 	  private Session testSession;
-	  private List<Session> testSessionList;
 
 	  @BeforeEach
 	  public void setUp() {
@@ -68,7 +89,7 @@ public class SessionServiceTest {
 	    testUser.setCreatedAt(fixedDateTime);
 	    testUser.setUpdatedAt(fixedDateTime);
 
-	    testUserList = new ArrayList<User>();
+	    testUserList = new HashSet<User>();
 
 	    testSession = new Session();
 	    testSession.setId(1L);
@@ -79,10 +100,6 @@ public class SessionServiceTest {
 	    testSession.setCreatedAt(fixedDateTime);
 	    testSession.setUpdatedAt(fixedDateTime);
 	    testSession.setDate(fixedDate);
-
-	    testSessionList = new ArrayList<Session>();
-	    testSessionList.add(testSession);
-	    testSessionList.add(testSession);
 	  }
 	  
 	  
@@ -99,32 +116,32 @@ public class SessionServiceTest {
 
 	    // Assert
 	    verify(sessionRepository).save(sessionToCreateUnderTest);
+	    verify(sessionRepository).syncSeatsTaken(testSessionId);
 	    assertThat(createdSession).isEqualTo(sessionToCreateUnderTest);
 	  }
 
 	  @Test
-	  public void testerSupprimerSession() {
+	  public void testerAjouterSession_PlusDeParticipantsQueDePlaces() {
 	    // Arrange
-	    Long testSessionIdUnderTest = testSessionId;
-	    // Act
-	    sessionService.delete(testSessionIdUnderTest);
+	    testSession.setCapacity(1);
+	    testSession.setUsers(new HashSet<>(Arrays.asList(testUser, new User().setId(2L))));
 
-	    // Assert
-	    verify(sessionRepository).deleteById(testSessionIdUnderTest);
+	    // Act and Assert
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> sessionService.create(testSession));
+	    verify(sessionRepository, never()).save(any(Session.class));
 	  }
 
 	  @Test
-	  public void testerFindAllSessions() {
+	  public void testerSupprimerSession() {
 	    // Arrange
-	    List<Session> sessionsListUnderTest = testSessionList;
-	    when(sessionRepository.findAll()).thenReturn(sessionsListUnderTest);
-
+	    Long testSessionIdUnderTest = testSessionId;
 	    // Act
-	    List<Session> retrievedSessions = sessionService.findAll();
+	    sessionService.delete(testSessionIdUnderTest);
 
 	    // Assert
-	    verify(sessionRepository).findAll();
-	    assertThat(retrievedSessions).isEqualTo(sessionsListUnderTest);
+	    verify(waitlistRepository).deleteBySession(testSessionIdUnderTest);
+	    verify(sessionRepository).deleteById(testSessionIdUnderTest);
 	  }
 
 	  @Test
@@ -164,7 +181,7 @@ public class SessionServiceTest {
 	    Long testSessionIdUnderTest = testSessionId + 1;
 	    Session updatedSessionUnderTest = testSession;
 
-	    when(sessionRepository.save(updatedSessionUnderTest))
+	    when(sessionRepository.saveAndFlush(updatedSessionUnderTest))
 	      .thenReturn(updatedSessionUnderTest);
 
 	    // Act
@@ -173,33 +190,47 @@ public class SessionServiceTest {
 	      updatedSessionUnderTest
 	    );
 
-	    // Assert
-	    verify(sessionRepository).save(updatedSessionUnderTest);
+	    // Assert : la ligne est verrouillée avant l'écriture
+	    InOrder inOrder = inOrder(sessionRepository);
+	    inOrder.verify(sessionRepository).lockFreeSeats(testSessionIdUnderTest, 0);
+	    inOrder.verify(sessionRepository).saveAndFlush(updatedSessionUnderTest);
+	    inOrder.verify(sessionRepository).syncSeatsTaken(testSessionIdUnderTest);
 	    assertThat(result).isEqualTo(updatedSessionUnderTest);
 	    assertThat(result.getId()).isEqualTo(testSessionId + 1);
 	  }
 
+	  @Test
+	  public void testerMiseAJourSession_ParticipantsEnregistresAuDelaDeLaCapacite() {
+	    // Arrange : le DTO tient dans la capacité, mais pas les participants enregistrés
+	    testSession.setCapacity(1);
+	    testSession.setUsers(new HashSet<>(Collections.singletonList(testUser)));
+	    when(sessionRepository.saveAndFlush(testSession)).thenReturn(testSession);
+	    when(sessionRepository.countParticipants(testSessionId)).thenReturn(2L);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> sessionService.update(testSessionId, testSession));
+	    verify(sessionRepository, never()).syncSeatsTaken(testSessionId);
+	  }
+
 	  @Test
 	  public void testerParticipationInSession() {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userId = testUserId;
-
-	    Session sessionUnderTest = testSession;
-	    sessionUnderTest.setUsers(new ArrayList<User>());
-
-	    User userUnderTest = testUser;
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.of(sessionUnderTest));
-	    when(userRepository.findById(userId))
-	      .thenReturn(Optional.of(userUnderTest));
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(1);
+	    when(sessionRepository.addParticipant(testSessionIdUnderTest, userId))
+	      .thenReturn(1);
 
 	    // Act
 	    sessionService.participate(testSessionIdUnderTest, userId);
 
 	    // Assert
-	    verify(sessionRepository).save(sessionUnderTest);
-	    assertThat(sessionUnderTest.getUsers()).contains(userUnderTest);
+	    verify(sessionRepository).reserveSeat(testSessionIdUnderTest);
+	    verify(sessionRepository).addParticipant(testSessionIdUnderTest, userId);
+	    verify(waitlistRepository).leave(testSessionIdUnderTest, userId);
+	    verify(sessionRepository, never()).findById(testSessionIdUnderTest);
+	    verify(sessionRepository, never()).save(any(Session.class));
 	  }
 
 	  @Test
@@ -207,10 +238,10 @@ public class SessionServiceTest {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userIdUnderTest = testUserId;
-	    Session sessionUnderTest = testSession;
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.of(sessionUnderTest));
-	    when(userRepository.findById(userIdUnderTest)).thenReturn(Optional.empty());
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(1);
+	    when(sessionRepository.addParticipant(testSessionIdUnderTest, userIdUnderTest))
+	      .thenReturn(0);
+	    when(userRepository.existsById(userIdUnderTest)).thenReturn(false);
 
 	    // Act and Assert
 	    assertThatExceptionOfType(NotFoundException.class)
@@ -224,11 +255,8 @@ public class SessionServiceTest {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userIdUnderTest = testUserId;
-	    User userUnderTest = testUser;
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.empty());
-	    when(userRepository.findById(userIdUnderTest))
-	      .thenReturn(Optional.of(userUnderTest));
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(0);
+	    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(false);
 
 	    // Act and Assert
 	    assertThatExceptionOfType(NotFoundException.class)
@@ -242,13 +270,10 @@ public class SessionServiceTest {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userIdUnderTest = testUserId;
-	    Session sessionUnderTest = testSession;
-	    User userUnderTest = testUser;
-	    sessionUnderTest.getUsers().add(userUnderTest);
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.of(sessionUnderTest));
-	    when(userRepository.findById(userIdUnderTest))
-	      .thenReturn(Optional.of(userUnderTest));
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(1);
+	    when(sessionRepository.addParticipant(testSessionIdUnderTest, userIdUnderTest))
+	      .thenReturn(0);
+	    when(userRepository.existsById(userIdUnderTest)).thenReturn(true);
 
 	    // Act and Assert
 	    assertThatExceptionOfType(BadRequestException.class)
@@ -257,23 +282,190 @@ public class SessionServiceTest {
 	      );
 	  }
 
+	  @Test
+	  public void testerParticipationInSession_SessionComplete() {
+	    // Arrange
+	    Long testSessionIdUnderTest = testSessionId;
+	    Long userIdUnderTest = testUserId;
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(0);
+	    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(true);
+
+	    // Act and Assert : aucune participation n'est insérée sans place
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() ->
+	        sessionService.participate(testSessionIdUnderTest, userIdUnderTest)
+	      )
+	      .withMessage("Session is full");
+	    verify(sessionRepository, never()).addParticipant(testSessionIdUnderTest, userIdUnderTest);
+	    verify(waitlistRepository, never()).leave(testSessionIdUnderTest, userIdUnderTest);
+	  }
+
 	  @Test
 	  public void testerNoLongerParticipationInSession() {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userIdUnderTest = testUserId;
-	    Session sessionUnderTest = testSession;
-	    User userUnderTest = testUser;
-	    sessionUnderTest.getUsers().add(userUnderTest);
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.of(sessionUnderTest));
+	    when(sessionRepository.releaseSeat(testSessionIdUnderTest, userIdUnderTest))
+	      .thenReturn(1);
 
 	    // Act
 	    sessionService.noLongerParticipate(testSessionIdUnderTest, userIdUnderTest);
 
 	    // Assert
-	    verify(sessionRepository).save(sessionUnderTest);
-	    assertThat(sessionUnderTest.getUsers()).doesNotContain(userUnderTest);
+	    verify(sessionRepository).removeParticipant(testSessionIdUnderTest, userIdUnderTest);
+	    verify(sessionRepository, never()).save(any(Session.class));
+	  }
+
+	  @Test
+	  public void testerNoLongerParticipationInSession_PromeutLaTeteDeListeDAttente() {
+	    // Arrange : 2 attend depuis plus longtemps que 3
+	    Long testSessionIdUnderTest = testSessionId;
+	    Long userIdUnderTest = testUserId;
+	    when(sessionRepository.releaseSeat(testSessionIdUnderTest, userIdUnderTest))
+	      .thenReturn(1);
+	    when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(testSessionIdUnderTest))
+	      .thenReturn(Optional.of(new WaitlistEntry(10L, testSessionIdUnderTest, 2L, fixedDateTime)))
+	      .thenReturn(Optional.of(new WaitlistEntry(11L, testSessionIdUnderTest, 3L, fixedDateTime)));
+	    // Une seule place libérée
+	    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(1, 0);
+	    when(sessionRepository.addParticipant(testSessionIdUnderTest, 2L)).thenReturn(1);
+
+	    // Act
+	    sessionService.noLongerParticipate(testSessionIdUnderTest, userIdUnderTest);
+
+	    // Assert
+	    verify(waitlistRepository).leave(testSessionIdUnderTest, 2L);
+	    verify(sessionRepository).addParticipant(testSessionIdUnderTest, 2L);
+	    verify(sessionRepository, never()).addParticipant(testSessionIdUnderTest, 3L);
+	    verify(waitlistRepository, never()).leave(testSessionIdUnderTest, 3L);
+	  }
+
+	  @Test
+	  public void testerInscriptionGroupee_ResultatParId() {
+	    // Arrange : 2 et 3 peuvent être inscrits mais il ne reste qu'une place,
+	    // 4 participe déjà, 5 n'existe pas, 2 est demandé deux fois
+	    List<Long> userIds = Arrays.asList(2L, 4L, 5L, 3L, 2L);
+	    List<Long> distinctIds = Arrays.asList(2L, 4L, 5L, 3L);
+	    when(sessionRepository.lockFreeSeats(testSessionId, 4)).thenReturn(1);
+	    when(sessionRepository.findParticipation(testSessionId, distinctIds)).thenReturn(Arrays.asList(
+	      new Object[] { 2L, null },
+	      new Object[] { 3, null },
+	      new Object[] { 4L, 4L }
+	    ));
+	    when(sessionRepository.addParticipants(testSessionId, Collections.singletonList(2L))).thenReturn(1);
+
+	    // Act
+	    Map<Long, EnrollmentStatus> results = sessionService.enroll(testSessionId, userIds);
+
+	    // Assert : une requête d'insertion groupée, dans l'ordre demandé
+	    assertThat(results).containsExactly(
+	      entry(2L, EnrollmentStatus.ENROLLED),
+	      entry(4L, EnrollmentStatus.ALREADY_PARTICIPATING),
+	      entry(5L, EnrollmentStatus.UNKNOWN_USER),
+	      entry(3L, EnrollmentStatus.SESSION_FULL)
+	    );
+	    verify(sessionRepository).takeSeats(testSessionId, 1);
+	    verify(waitlistRepository).leaveAll(testSessionId, Collections.singletonList(2L));
+	    verify(sessionRepository, never()).addParticipant(any(), any());
+	  }
+
+	  @Test
+	  public void testerInscriptionGroupee_SessionNotFound() {
+	    // Arrange
+	    when(sessionRepository.lockFreeSeats(testSessionId, 1)).thenReturn(null);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(NotFoundException.class)
+	      .isThrownBy(() -> sessionService.enroll(testSessionId, Collections.singletonList(testUserId)));
+	    verify(sessionRepository, never()).addParticipants(any(), any());
+	  }
+
+	  @Test
+	  public void testerRejoindreListeDAttente_RetournePosition() {
+	    // Arrange
+	    when(waitlistRepository.join(testSessionId, testUserId)).thenReturn(1);
+	    when(waitlistRepository.findBySessionIdAndUserId(testSessionId, testUserId))
+	      .thenReturn(Optional.of(new WaitlistEntry(42L, testSessionId, testUserId, fixedDateTime)));
+	    when(waitlistRepository.countUpTo(testSessionId, 42L)).thenReturn(3L);
+
+	    // Act
+	    long position = sessionService.joinWaitlist(testSessionId, testUserId);
+
+	    // Assert
+	    assertThat(position).isEqualTo(3L);
+	  }
+
+	  @Test
+	  public void testerRejoindreListeDAttente_DejaInscrit() {
+	    // Arrange : session et utilisateur existent mais rien n'est inséré
+	    when(waitlistRepository.join(testSessionId, testUserId)).thenReturn(0);
+	    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+	    when(userRepository.existsById(testUserId)).thenReturn(true);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> sessionService.joinWaitlist(testSessionId, testUserId));
+	  }
+
+	  @Test
+	  public void testerRejoindreListeDAttente_SessionNotFound() {
+	    // Arrange
+	    when(waitlistRepository.join(testSessionId, testUserId)).thenReturn(0);
+	    when(sessionRepository.existsById(testSessionId)).thenReturn(false);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(NotFoundException.class)
+	      .isThrownBy(() -> sessionService.joinWaitlist(testSessionId, testUserId));
+	  }
+
+	  @Test
+	  public void testerPositionListeDAttente_UtilisateurNonInscrit() {
+	    // Arrange
+	    when(waitlistRepository.findBySessionIdAndUserId(testSessionId, testUserId))
+	      .thenReturn(Optional.empty());
+
+	    // Act and Assert
+	    assertThatExceptionOfType(NotFoundException.class)
+	      .isThrownBy(() -> sessionService.getWaitlistPosition(testSessionId, testUserId));
+	  }
+
+	  @Test
+	  public void testerQuitterListeDAttente_NonInscrit() {
+	    // Arrange
+	    when(waitlistRepository.leave(testSessionId, testUserId)).thenReturn(0);
+	    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> sessionService.leaveWaitlist(testSessionId, testUserId));
+	  }
+
+	  @Test
+	  public void testerListeDAttente_SessionNotFound() {
+	    // Arrange
+	    when(sessionRepository.existsById(testSessionId)).thenReturn(false);
+
+	    // Act and Assert
+	    assertThatExceptionOfType(NotFoundException.class)
+	      .isThrownBy(() -> sessionService.findWaitlist(testSessionId, null, 50));
+	    verify(waitlistRepository, never()).findEntries(testSessionId, PageRequest.of(0, 51));
+	  }
+
+	  @Test
+	  public void testerListeDAttente_AvecCurseur_AvecPageSuivante() {
+	    // Arrange
+	    WaitlistEntry first = new WaitlistEntry(11L, testSessionId, 2L, fixedDateTime);
+	    WaitlistEntry second = new WaitlistEntry(12L, testSessionId, 3L, fixedDateTime);
+	    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+	    when(waitlistRepository.findEntriesAfter(testSessionId, 10L, PageRequest.of(0, 2)))
+	      .thenReturn(new ArrayList<>(Arrays.asList(first, second)));
+
+	    // Act
+	    Slice<WaitlistEntry> page = sessionService.findWaitlist(testSessionId, 10L, 1);
+
+	    // Assert
+	    assertThat(page.getContent()).containsExactly(first);
+	    assertThat(page.hasNext()).isTrue();
 	  }
 
 	  @Test
@@ -282,8 +474,9 @@ public class SessionServiceTest {
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userIdUnderTest = testUserId;
 
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.empty());
+	    when(sessionRepository.releaseSeat(testSessionIdUnderTest, userIdUnderTest))
+	      .thenReturn(0);
+	    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(false);
 
 	    // Act and Assert
 	    assertThatExceptionOfType(NotFoundException.class)
@@ -300,9 +493,9 @@ public class SessionServiceTest {
 	    // Arrange
 	    Long testSessionIdUnderTest = testSessionId;
 	    Long userId = testUserId;
-	    Session sessionUnderTest = testSession;
-	    when(sessionRepository.findById(testSessionIdUnderTest))
-	      .thenReturn(Optional.of(sessionUnderTest));
+	    when(sessionRepository.releaseSeat(testSessionIdUnderTest, userId))
+	      .thenReturn(0);
+	    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(true);
 
 	    // Act and Assert
 	    assertThatExceptionOfType(BadRequestException.class)
@@ -311,4 +504,78 @@ public class SessionServiceTest {
 	      );
 	  }
 
+	  @Test
+	  public void testerFindPage_PremierePage_AvecPageSuivante() {
+	    // Arrange
+	    SessionSummary first = mock(SessionSummary.class);
+	    SessionSummary second = mock(SessionSummary.class);
+	    when(sessionRepository.findSummaries(PageRequest.of(0, 2)))
+	      .thenReturn(new ArrayList<>(Arrays.asList(first, second)));
+
+	    // Act
+	    Slice<SessionSummary> page = sessionService.findPage(null, 1);
+
+	    // Assert
+	    assertThat(page.getContent()).containsExactly(first);
+	    assertThat(page.hasNext()).isTrue();
+	  }
+
+	  @Test
+	  public void testerFindPage_AvecCurseur_TailleLimitee() {
+	    // Arrange
+	    SessionSummary summary = mock(SessionSummary.class);
+	    SessionCursor cursor = new SessionCursor(fixedDate, testSessionId);
+	    when(sessionRepository.findSummariesAfter(fixedDate, testSessionId, PageRequest.of(0, SessionService.MAX_PAGE_SIZE + 1)))
+	      .thenReturn(new ArrayList<>(Arrays.asList(summary)));
+
+	    // Act
+	    Slice<SessionSummary> page = sessionService.findPage(cursor, 10000);
+
+	    // Assert
+	    assertThat(page.getContent()).containsExactly(summary);
+	    assertThat(page.hasNext()).isFalse();
+	  }
+
+	  @Test
+	  public void testerFindParticipantIds_GroupeParSession() {
+	    // Arrange
+	    List<Long> sessionIds = Arrays.asList(1L, 2L, 3L);
+	    when(sessionRepository.findParticipantIds(sessionIds)).thenReturn(Arrays.asList(
+	      new Object[] { 1, 4 },
+	      new Object[] { 1, 5 },
+	      new Object[] { 2L, 4L }
+	    ));
+
+	    // Act
+	    Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessionIds);
+
+	    // Assert
+	    assertThat(participantIds.get(1L)).containsExactly(4L, 5L);
+	    assertThat(participantIds.get(2L)).containsExactly(4L);
+	    assertThat(participantIds).doesNotContainKey(3L);
+	    assertThat(sessionService.findParticipantIds(Collections.emptyList())).isEmpty();
+	  }
+
+	  @Test
+	  public void testerSessionCursor_Invalide_RetourneBadRequest() {
+	    // Arrange
+	    String token = SessionCursor.encode(fixedDate, testSessionId);
+
+	    // Act and Assert
+	    assertThat(SessionCursor.decode(token).getId()).isEqualTo(testSessionId);
+	    assertThat(SessionCursor.decode(token).getDate()).isEqualTo(fixedDate);
+	    assertThat(SessionCursor.decode(null)).isNull();
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> SessionCursor.decode("pas-un-curseur"));
+	  }
+
+	  @Test
+	  public void testerWaitlistCursor_Invalide_RetourneBadRequest() {
+	    // Act and Assert
+	    assertThat(WaitlistCursor.decode(WaitlistCursor.encode(42L))).isEqualTo(42L);
+	    assertThat(WaitlistCursor.decode(null)).isNull();
+	    assertThatExceptionOfType(BadRequestException.class)
+	      .isThrownBy(() -> WaitlistCursor.decode("pas-un-curseur"));
+	  }
+
 }
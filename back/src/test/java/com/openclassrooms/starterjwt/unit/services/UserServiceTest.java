@@ -1,20 +1,34 @@
 package com.openclassrooms.starterjwt.unit.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import com.openclassrooms.starterjwt.services.UserService;
 
 @SpringBootTest
@@ -26,6 +40,9 @@ public class UserServiceTest {
 	  @Mock
 	  private UserRepository userRepository;
 
+	  @Mock
+	  private UserDetailsServiceImpl userDetailsService;
+
 	  private Long testUserId = 1L;
 	  private LocalDateTime fixedDateTime = LocalDateTime.of(2025, 1, 1, 1, 1, 1);
 
@@ -49,11 +66,16 @@ public class UserServiceTest {
 	    // Arrange
 	    Long userIdUnderTest = testUserId;
 
+	    when(userRepository.findById(userIdUnderTest))
+	      .thenReturn(Optional.of(testUser));
+
 	    // Act
 	    userService.delete(userIdUnderTest);
 
-	    // Assert
-	    verify(userRepository).deleteById(userIdUnderTest);
+	    // Assert : le cache n'est vidé qu'une fois la ligne supprimée
+	    InOrder inOrder = inOrder(userRepository, userDetailsService);
+	    inOrder.verify(userRepository).deleteById(userIdUnderTest);
+	    inOrder.verify(userDetailsService).evict("ibra@test.com");
 	  }
 	  
 	  @Test
@@ -87,5 +109,40 @@ public class UserServiceTest {
 	    verify(userRepository).findById(UserIdNonExiste);
 	  }
 
+	  @Test
+	  public void testerRechercherUsersParIds_RequetesParLots() {
+	    // Arrange : 2500 IDs distincts (et un doublon) doivent donner 3 requêtes IN
+	    List<Long> ids = new ArrayList<>();
+	    for (long id = 1; id <= 2500; id++) {
+	      ids.add(id);
+	    }
+	    ids.add(1L);
+	    when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+	      List<User> users = new ArrayList<>();
+	      for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+	        users.add(new User().setId(id));
+	      }
+	      return users;
+	    });
+
+	    // Act
+	    Set<User> users = userService.findAllById(ids);
 
+	    // Assert
+	    assertThat(users).hasSize(2500);
+	    verify(userRepository, times(3)).findAllById(anyIterable());
+	    verify(userRepository, never()).findById(anyLong());
+	  }
+
+	  @Test
+	  public void testerRechercherUsersParIds_IdInconnu() {
+	    // Arrange
+	    when(userRepository.findAllById(Arrays.asList(1L, 98L, 99L)))
+	      .thenReturn(Collections.singletonList(testUser));
+
+	    // Act & Assert : les IDs inconnus sont signalés
+	    assertThatThrownBy(() -> userService.findAllById(Arrays.asList(1L, 98L, 99L)))
+	      .isInstanceOf(BadRequestException.class)
+	      .hasMessageContaining("[98, 99]");
+	  }
 }
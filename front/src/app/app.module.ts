@@ -11,6 +11,7 @@ import { MatIconModule } from '@angular/material/icon';
 import { MatToolbarModule } from '@angular/material/toolbar';
 import { HttpClientModule, HTTP_INTERCEPTORS } from '@angular/common/http';
 import { JwtInterceptor } from './interceptors/jwt.interceptor';
+import { RefreshInterceptor } from './interceptors/refresh.interceptor';
 import { MatCardModule } from '@angular/material/card';
 import { FlexLayoutModule } from '@angular/flex-layout';
 import { MeComponent } from './components/me/me.component';
@@ -40,6 +41,8 @@ const materialModule = [
     ...materialModule
   ],
   providers: [
+    // Registered first so that the retried request goes through JwtInterceptor with the new token
+    { provide: HTTP_INTERCEPTORS, useClass: RefreshInterceptor, multi: true },
     { provide: HTTP_INTERCEPTORS, useClass: JwtInterceptor, multi: true },
   ],
   bootstrap: [AppComponent]
@@ -34,6 +34,7 @@ describe('AuthService', () => {
     firstName: 'firstName',
     lastName: 'lastName',
     admin: false,
+    refreshToken: 'refreshToken',
   };
 
   beforeEach(() => {
@@ -75,4 +76,14 @@ describe('AuthService', () => {
 
     req.flush(loginSessionResponse);
   });
+
+  it('should send a refresh request', () => {
+    authService.refresh('refreshToken').subscribe();
+
+    const req = httpTestingController.expectOne('api/auth/refresh');
+    expect(req.request.method).toEqual('POST');
+    expect(req.request.body).toEqual({ refreshToken: 'refreshToken' });
+
+    req.flush(loginSessionResponse);
+  });
 });
\ No newline at end of file
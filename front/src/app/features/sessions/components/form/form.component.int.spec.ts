@@ -61,6 +61,7 @@ describe('FormComponent', () => {
       description: 'je suis diengsalla',
       date: new Date(),
       teacher_id: 10,
+      capacity: 20,
       users: [2, 3, 4],
       createdAt: new Date('2025-04-14'),
       updatedAt: new Date('2025-04-14'),
@@ -72,6 +73,7 @@ describe('FormComponent', () => {
       description: 'Nouveau Description',
       date: new Date('2025-04-14'),
       teacher_id: 9,
+      capacity: null,
     };
 
     // Données mockées pour la liste des enseignants
@@ -1,5 +1,5 @@
-import { Component } from '@angular/core';
-import { Observable } from 'rxjs';
+import { Component, OnInit } from '@angular/core';
+import { finalize } from 'rxjs/operators';
 import { SessionInformation } from '../../../../interfaces/sessionInformation.interface';
 import { SessionService } from '../../../../services/session.service';
 import { Session } from '../../interfaces/session.interface';
@@ -10,16 +10,39 @@ import { SessionApiService } from '../../services/session-api.service';
   templateUrl: './list.component.html',
   styleUrls: ['./list.component.scss']
 })
-export class ListComponent {
+export class ListComponent implements OnInit {
 
-  public sessions$: Observable<Session[]> = this.sessionApiService.all();
+  public sessions: Session[] = [];
+  // Cursor of the page after the ones displayed, null once the last page is loaded
+  public nextCursor: string | null = null;
+  public loading = false;
 
   constructor(
     private sessionService: SessionService,
     private sessionApiService: SessionApiService
   ) { }
 
+  public ngOnInit(): void {
+    this.load(null);
+  }
+
   get user(): SessionInformation | undefined {
     return this.sessionService.sessionInformation;
   }
+
+  public loadMore(): void {
+    if (this.nextCursor && !this.loading) {
+      this.load(this.nextCursor);
+    }
+  }
+
+  private load(cursor: string | null): void {
+    this.loading = true;
+    this.sessionApiService.page(cursor)
+      .pipe(finalize(() => this.loading = false))
+      .subscribe((page) => {
+        this.sessions = this.sessions.concat(page.sessions);
+        this.nextCursor = page.nextCursor;
+      });
+  }
 }
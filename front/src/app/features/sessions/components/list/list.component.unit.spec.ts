@@ -4,7 +4,6 @@ import { SessionApiService } from '../../services/session-api.service';
 import { SessionService } from 'src/app/services/session.service';
 import { expect } from '@jest/globals';
 import { of } from 'rxjs';
-import { Session } from '../../interfaces/session.interface';
 
 describe('ListComponent', () => {
   let component: ListComponent;
@@ -18,7 +17,7 @@ describe('ListComponent', () => {
 
   // Mock du service SessionApiService
   const mockSessionApiService = {
-    all: jest.fn().mockReturnValue(of(mockSessions)),
+    page: jest.fn(),
   };
 
   // Mock de SessionService avec un utilisateur admin
@@ -27,6 +26,9 @@ describe('ListComponent', () => {
   };
 
   beforeEach(async () => {
+    mockSessionApiService.page.mockReset();
+    mockSessionApiService.page.mockReturnValueOnce(of({ sessions: mockSessions, nextCursor: 'abc' }));
+
     await TestBed.configureTestingModule({
       declarations: [ListComponent],
       providers: [
@@ -44,11 +46,29 @@ describe('ListComponent', () => {
     expect(component).toBeTruthy();
   });
 
-  it('devrait initialiser sessions$ avec les données de session du service', (done) => {
-    component.sessions$.subscribe((sessions) => {
-      expect(sessions).toEqual(mockSessions);
-      done();
-    });
+  it('devrait initialiser sessions avec la première page du service', () => {
+    expect(mockSessionApiService.page).toHaveBeenCalledWith(null);
+    expect(component.sessions).toEqual(mockSessions);
+    expect(component.nextCursor).toBe('abc');
+  });
+
+  it('devrait ajouter la page suivante avec le curseur sur "loadMore"', () => {
+    const nextSession = { id: 3, name: 'Session 3', description: 'desc', date: new Date(), teacher_id: 10 };
+    mockSessionApiService.page.mockReturnValueOnce(of({ sessions: [nextSession], nextCursor: null }));
+
+    component.loadMore();
+
+    expect(mockSessionApiService.page).toHaveBeenLastCalledWith('abc');
+    expect(component.sessions).toEqual([...mockSessions, nextSession]);
+    expect(component.nextCursor).toBeNull();
+  });
+
+  it('ne devrait plus rien charger après la dernière page', () => {
+    component.nextCursor = null;
+
+    component.loadMore();
+
+    expect(mockSessionApiService.page).toHaveBeenCalledTimes(1);
   });
 
   it('devrait renvoyer user actuel à partir sessionService', () => {
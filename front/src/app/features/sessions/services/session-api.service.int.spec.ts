@@ -39,9 +39,9 @@ describe('SessionsService', () => {
     expect(service).toBeTruthy();
   });
 
-  test('doit "all", récuperer les sessions depuis API via GET', () => {
-    service.all().subscribe((sessions) => {
-      expect(sessions).toEqual(mockSessions);
+  test('doit "page", récuperer la première page des sessions depuis API via GET', () => {
+    service.page().subscribe((page) => {
+      expect(page).toEqual({ sessions: mockSessions, nextCursor: null });
     });
 
     const req = httpTestingController.expectOne('api/session');
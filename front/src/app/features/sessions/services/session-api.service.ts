@@ -1,7 +1,9 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
+import { map } from 'rxjs/operators';
 import { Session } from '../interfaces/session.interface';
+import { SessionPage } from '../interfaces/sessionPage.interface';
 
 @Injectable({
   providedIn: 'root'
@@ -13,8 +15,17 @@ export class SessionApiService {
   constructor(private httpClient: HttpClient) {
   }
 
-  public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+  /**
+   * One page of sessions; pass back its nextCursor to get the following one, null once on the last page.
+   */
+  public page(cursor: string | null = null): Observable<SessionPage> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : undefined;
+    return this.httpClient.get<Session[]>(this.pathService, { params, observe: 'response' }).pipe(
+      map((response) => ({
+        sessions: response.body ?? [],
+        nextCursor: response.headers.get('X-Next-Cursor'),
+      }))
+    );
   }
 
   public detail(id: string): Observable<Session> {
@@ -39,9 +39,9 @@ describe('SessionsService', () => {
     expect(service).toBeTruthy();
   });
 
-  test('doit "all", récuperer les sessions depuis API via GET', () => {
-    service.all().subscribe((sessions) => {
-      expect(sessions).toEqual(mockSessions);
+  test('doit "page", récuperer la première page des sessions depuis API via GET', () => {
+    service.page().subscribe((page) => {
+      expect(page).toEqual({ sessions: mockSessions, nextCursor: null });
     });
 
     const req = httpTestingController.expectOne('api/session');
@@ -50,6 +50,23 @@ describe('SessionsService', () => {
     req.flush(mockSessions);
   });
 
+  test('doit "page", renvoyer X-Next-Cursor et le transmettre pour la page suivante', () => {
+    const secondSession = { ...mockSession, id: 2 };
+
+    service.page().subscribe((page) => {
+      expect(page).toEqual({ sessions: [mockSession], nextCursor: 'abc' });
+    });
+    httpTestingController.expectOne('api/session')
+      .flush([mockSession], { headers: { 'X-Next-Cursor': 'abc' } });
+
+    service.page('abc').subscribe((page) => {
+      expect(page).toEqual({ sessions: [secondSession], nextCursor: null });
+    });
+    const second = httpTestingController.expectOne('api/session?cursor=abc');
+    expect(second.request.method).toBe('GET');
+    second.flush([secondSession]);
+  });
+
   test('doit "detail", récupérer les détails de la session depuis API via GET', () => {
     service.detail('1').subscribe((session) => {
       expect(session).toEqual(mockSession);
@@ -0,0 +1,46 @@
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
+import { Injectable } from "@angular/core";
+import { Observable, throwError } from "rxjs";
+import { catchError, finalize, shareReplay, switchMap, tap } from "rxjs/operators";
+import { AuthService } from '../features/auth/services/auth.service';
+import { SessionInformation } from '../interfaces/sessionInformation.interface';
+import { SessionService } from '../services/session.service';
+
+/**
+ * Access tokens only live a few minutes: a 401 on an authenticated request
+ * exchanges the refresh token for a new pair, then replays the request once.
+ * Concurrent 401s share the same refresh call, since a refresh token can only be used once.
+ */
+@Injectable({ providedIn: 'root' })
+export class RefreshInterceptor implements HttpInterceptor {
+  private refreshing: Observable<SessionInformation> | null = null;
+
+  constructor(private authService: AuthService, private sessionService: SessionService) {}
+
+  public intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    return next.handle(request).pipe(
+      catchError((error) => {
+        if (!(error instanceof HttpErrorResponse) || error.status !== 401
+          || !this.sessionService.isLogged || request.url.startsWith('api/auth/')) {
+          return throwError(() => error);
+        }
+        return this.refresh().pipe(switchMap(() => next.handle(request)));
+      })
+    );
+  }
+
+  private refresh(): Observable<SessionInformation> {
+    if (!this.refreshing) {
+      this.refreshing = this.authService.refresh(this.sessionService.sessionInformation!.refreshToken).pipe(
+        tap((sessionInformation) => this.sessionService.logIn(sessionInformation)),
+        catchError((error) => {
+          this.sessionService.logOut();
+          return throwError(() => error);
+        }),
+        finalize(() => this.refreshing = null),
+        shareReplay(1)
+      );
+    }
+    return this.refreshing;
+  }
+}
@@ -0,0 +1,117 @@
+import { HttpClient, HTTP_INTERCEPTORS } from '@angular/common/http';
+import {
+  HttpClientTestingModule,
+  HttpTestingController,
+} from '@angular/common/http/testing';
+import { TestBed } from '@angular/core/testing';
+import { expect } from '@jest/globals';
+import { SessionInformation } from '../interfaces/sessionInformation.interface';
+import { SessionService } from '../services/session.service';
+import { JwtInterceptor } from './jwt.interceptor';
+import { RefreshInterceptor } from './refresh.interceptor';
+
+describe('RefreshInterceptor', () => {
+  let httpClient: HttpClient;
+  let httpTestingController: HttpTestingController;
+  let sessionService: SessionService;
+
+  const expiredSession: SessionInformation = {
+    token: 'expiredToken',
+    type: 'Bearer',
+    id: 1,
+    username: 'yoga@studio.com',
+    firstName: 'Yoga',
+    lastName: 'Studio',
+    admin: false,
+    refreshToken: 'refreshToken',
+  };
+
+  const refreshedSession: SessionInformation = {
+    ...expiredSession,
+    token: 'newToken',
+    refreshToken: 'newRefreshToken',
+  };
+
+  beforeEach(() => {
+    TestBed.configureTestingModule({
+      imports: [HttpClientTestingModule],
+      providers: [
+        { provide: HTTP_INTERCEPTORS, useClass: RefreshInterceptor, multi: true },
+        { provide: HTTP_INTERCEPTORS, useClass: JwtInterceptor, multi: true },
+      ],
+    });
+
+    httpClient = TestBed.inject(HttpClient);
+    httpTestingController = TestBed.inject(HttpTestingController);
+    sessionService = TestBed.inject(SessionService);
+    sessionService.logIn(expiredSession);
+  });
+
+  afterEach(() => {
+    httpTestingController.verify();
+  });
+
+  it('should refresh the tokens on 401 and replay the request', () => {
+    let response: any;
+    httpClient.get('api/session').subscribe((body) => (response = body));
+
+    httpTestingController
+      .expectOne('api/session')
+      .flush(null, { status: 401, statusText: 'Unauthorized' });
+
+    const refresh = httpTestingController.expectOne('api/auth/refresh');
+    expect(refresh.request.body).toEqual({ refreshToken: 'refreshToken' });
+    refresh.flush(refreshedSession);
+
+    const retry = httpTestingController.expectOne('api/session');
+    expect(retry.request.headers.get('Authorization')).toEqual('Bearer newToken');
+    retry.flush([]);
+
+    expect(response).toEqual([]);
+    expect(sessionService.sessionInformation).toEqual(refreshedSession);
+  });
+
+  it('should share a single refresh between concurrent 401s', () => {
+    httpClient.get('api/session').subscribe();
+    httpClient.get('api/teacher').subscribe();
+
+    httpTestingController
+      .expectOne('api/session')
+      .flush(null, { status: 401, statusText: 'Unauthorized' });
+    httpTestingController
+      .expectOne('api/teacher')
+      .flush(null, { status: 401, statusText: 'Unauthorized' });
+
+    httpTestingController.expectOne('api/auth/refresh').flush(refreshedSession);
+
+    httpTestingController.expectOne('api/session').flush([]);
+    httpTestingController.expectOne('api/teacher').flush([]);
+  });
+
+  it('should log out when the refresh token is rejected', () => {
+    let status: number | undefined;
+    httpClient.get('api/session').subscribe({ error: (error) => (status = error.status) });
+
+    httpTestingController
+      .expectOne('api/session')
+      .flush(null, { status: 401, statusText: 'Unauthorized' });
+    httpTestingController
+      .expectOne('api/auth/refresh')
+      .flush(null, { status: 401, statusText: 'Unauthorized' });
+
+    expect(status).toEqual(401);
+    expect(sessionService.isLogged).toBe(false);
+  });
+
+  it('should not refresh on other errors', () => {
+    let status: number | undefined;
+    httpClient.get('api/session').subscribe({ error: (error) => (status = error.status) });
+
+    httpTestingController
+      .expectOne('api/session')
+      .flush(null, { status: 403, statusText: 'Forbidden' });
+
+    expect(status).toEqual(403);
+    expect(sessionService.isLogged).toBe(true);
+  });
+});
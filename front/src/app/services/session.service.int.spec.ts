@@ -16,6 +16,7 @@ describe('SessionService', () => {
     firstName: 'firstName',
     lastName: 'lastName',
     admin: false,
+    refreshToken: 'refreshToken',
   };
 
   beforeEach(() => {
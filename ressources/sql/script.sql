@@ -12,8 +12,11 @@ CREATE TABLE `SESSIONS` (
   `description` VARCHAR(2000),
   `date` TIMESTAMP,
   `teacher_id` int,
+  `capacity` INT,
+  `seats_taken` INT NOT NULL DEFAULT 0,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  INDEX `idx_sessions_date_id` (`date`, `id`)
 );
 
 CREATE TABLE `USERS` (
@@ -21,20 +24,39 @@ CREATE TABLE `USERS` (
   `last_name` VARCHAR(40),
   `first_name` VARCHAR(40),
   `admin` BOOLEAN NOT NULL DEFAULT false,
-  `email` VARCHAR(255),
+  `email` VARCHAR(255) UNIQUE,
   `password` VARCHAR(255),
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
 CREATE TABLE `PARTICIPATE` (
-  `user_id` INT, 
-  `session_id` INT
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  PRIMARY KEY (`session_id`, `user_id`),
+  INDEX `idx_participate_user` (`user_id`)
+);
+
+CREATE TABLE `WAITLIST` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY `uk_waitlist_session_user` (`session_id`, `user_id`),
+  INDEX `idx_waitlist_session_id` (`session_id`, `id`),
+  INDEX `idx_waitlist_user` (`user_id`)
+);
+
+CREATE TABLE `REVOKED_TOKENS` (
+  `jti` VARCHAR(36) PRIMARY KEY,
+  `expires_at` DATETIME NOT NULL
 );
 
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
 
 INSERT INTO TEACHERS (first_name, last_name)
 VALUES ('Margot', 'DELAHAYE'),